@@ -0,0 +1,160 @@
+package com.archtech.store.benchmark;
+
+import com.archtech.store.StoreApplication;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded SQLite databases for the benchmarks, one file per size. A fixture is
+ * built on first use and reused afterwards from the jmh.fixtures directory
+ * (target/jmh-fixtures by default), since seeding a million rows takes longer
+ * than most benchmarks.
+ *
+ * The first rows - CHAIN_LENGTH employees form a tree with ten reports per
+ * manager: ids 1-9 report to nobody and every other id n reports to n / 10.
+ * The last CHAIN_LENGTH employees form a single chain, each one managing the
+ * next, so depth-sensitive benchmarks can pick an exact depth.
+ */
+public final class EmployeeFixture {
+
+    public static final int CHAIN_LENGTH = 1000;
+    public static final int DEPARTMENTS = 50;
+
+    private static final String[] FIRST = {"alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi", "ivan", "judy"};
+    private static final String[] LAST = {"smith", "jones", "brown", "taylor", "wilson", "davies", "evans", "thomas", "roberts", "walker"};
+    private static final int BATCH = 10_000;
+
+    private EmployeeFixture() {
+    }
+
+    /**
+     * The database file holding the given number of employees, seeded if missing
+     */
+    public static synchronized Path database(int rows) throws Exception {
+        if (rows <= CHAIN_LENGTH) {
+            throw new IllegalArgumentException("A fixture needs more than " + CHAIN_LENGTH + " rows");
+        }
+        Path directory = Path.of(System.getProperty("jmh.fixtures", "target/jmh-fixtures"));
+        Path database = directory.resolve("employees-" + rows + ".db");
+        if (Files.exists(database)) {
+            return database;
+        }
+
+        Files.createDirectories(directory);
+        // Seed under a temporary name so an interrupted run never leaves a partial fixture behind
+        Path seeding = directory.resolve("employees-" + rows + ".seeding.db");
+        Files.deleteIfExists(seeding);
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + seeding, true);
+        try {
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            try (Connection connection = dataSource.getConnection()) {
+                seed(connection, rows);
+            }
+        } finally {
+            dataSource.destroy();
+        }
+        Files.move(seeding, database);
+        return database;
+    }
+
+    /**
+     * The first employee of the chain, who has no manager
+     */
+    public static long chainTop(int rows) {
+        return rows - CHAIN_LENGTH + 1L;
+    }
+
+    /**
+     * The chain employee with the given number of managers above them
+     */
+    public static long chainMember(int rows, int depth) {
+        if (depth < 0 || depth >= CHAIN_LENGTH) {
+            throw new IllegalArgumentException("Depth must be below " + CHAIN_LENGTH);
+        }
+        return chainTop(rows) + depth;
+    }
+
+    /**
+     * An employee in the tree with no reports and nothing to do with the chain
+     */
+    public static long treeLeaf(int rows) {
+        return rows - CHAIN_LENGTH;
+    }
+
+    /**
+     * Starts the application on a fixture, without a web server, with the
+     * given extra properties ("name=value")
+     */
+    public static ConfigurableApplicationContext start(Path database, String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:sqlite:" + database.toAbsolutePath(),
+                "spring.main.web-application-type=none",
+                "spring.main.banner-mode=off",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        all.addAll(List.of(properties));
+        // As command-line arguments, so they override application.properties
+        return new SpringApplicationBuilder(StoreApplication.class)
+                .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private static void seed(Connection connection, int rows) throws Exception {
+        int treeRows = rows - CHAIN_LENGTH;
+        long chainTop = chainTop(rows);
+        Random random = new Random(42);
+        Timestamp created = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 9, 0));
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO employee (id, employee_name, email, dept, salary, is_manager, manager_id, " +
+                "created_date, updated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= rows; id++) {
+                String first = FIRST[random.nextInt(FIRST.length)];
+                String last = LAST[random.nextInt(LAST.length)];
+                boolean chain = id >= chainTop;
+                Long managerId = chain ? (id == chainTop ? null : id - 1) : (id < 10 ? null : id / 10);
+                boolean isManager = chain ? id < rows : id * 10 <= treeRows;
+
+                insert.setLong(1, id);
+                insert.setString(2, capitalize(first) + " " + capitalize(last) + " " + Long.toString(id, 36));
+                insert.setString(3, first + "." + last + id + "@example.com");
+                insert.setString(4, "D" + (id % DEPARTMENTS));
+                insert.setDouble(5, 40_000 + random.nextInt(100_000));
+                insert.setBoolean(6, isManager);
+                if (managerId == null) {
+                    insert.setNull(7, Types.BIGINT);
+                } else {
+                    insert.setLong(7, managerId);
+                }
+                insert.setTimestamp(8, created);
+                insert.setTimestamp(9, created);
+                insert.addBatch();
+                if (id % BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
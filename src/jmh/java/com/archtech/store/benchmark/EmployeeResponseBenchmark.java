@@ -0,0 +1,84 @@
+package com.archtech.store.benchmark;
+
+import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to EmployeeResponse mapping and JSON serialization of a page of
+ * responses, without a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeResponseBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int size;
+
+    private List<Employee> employees;
+    private List<EmployeeResponse> responses;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Employee manager = new Employee("Grace Hopper", "grace.hopper@example.com", "D1", 150_000.0, null, true);
+        manager.setId(1L);
+
+        employees = new ArrayList<>(size);
+        Set<Employee> reports = new HashSet<>();
+        for (long id = 2; id < size + 2; id++) {
+            Employee employee = new Employee("Employee " + id, "employee" + id + "@example.com", "D" + (id % 50),
+                    40_000.0 + id, manager, false);
+            employee.setId(id);
+            employee.setCreatedDate(now);
+            employee.setUpdatedDate(now);
+            employee.setSubordinates(Set.of());
+            employees.add(employee);
+            reports.add(employee);
+        }
+        manager.setSubordinates(reports);
+
+        responses = map();
+        // The same Jackson setup Spring Boot gives the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public List<EmployeeResponse> map() {
+        return employees.stream().map(EmployeeResponse::new).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(map());
+    }
+}
@@ -0,0 +1,65 @@
+package com.archtech.store.benchmark;
+
+import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.services.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeService.searchEmployees through the full-text index and through the
+ * column filters alone. Each name matches about 1% of the fixture's rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = EmployeeFixture.start(EmployeeFixture.database(rows));
+        employeeService = context.getBean(EmployeeService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EmployeeResponse> searchByName() {
+        return employeeService.searchEmployees("alice smith", null, null, null, null);
+    }
+
+    @Benchmark
+    public List<EmployeeResponse> searchByNameAndDepartment() {
+        return employeeService.searchEmployees("alice smith", "D7", null, null, null);
+    }
+
+    @Benchmark
+    public List<EmployeeResponse> searchByDepartmentAndSalary() {
+        return employeeService.searchEmployees(null, "D7", 50_000.0, 60_000.0, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.archtech.store.benchmark;
+
+import com.archtech.store.dto.ReportingChainEntry;
+import com.archtech.store.services.EmployeeService;
+import com.archtech.store.services.EmployeeValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manager validation and the reporting chain, for a manager the given number
+ * of levels below the top of the fixture's chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrgChartBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"1", "10", "100", "999"})
+    private int depth;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeValidationService validationService;
+    private EmployeeService employeeService;
+    private long employeeId;
+    private long managerId;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = EmployeeFixture.start(EmployeeFixture.database(rows));
+        validationService = context.getBean(EmployeeValidationService.class);
+        employeeService = context.getBean(EmployeeService.class);
+        // A valid move: the cycle check walks all the way up the chain without finding the employee
+        employeeId = EmployeeFixture.treeLeaf(rows);
+        managerId = EmployeeFixture.chainMember(rows, depth - 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void validateManagerAssignment() {
+        validationService.validateManagerAssignment(employeeId, managerId);
+    }
+
+    @Benchmark
+    public List<ReportingChainEntry> getReportingHierarchy() {
+        return employeeService.getReportingHierarchy(managerId);
+    }
+}
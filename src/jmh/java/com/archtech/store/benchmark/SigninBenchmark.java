@@ -0,0 +1,76 @@
+package com.archtech.store.benchmark;
+
+import com.archtech.store.dto.SigninRequest;
+import com.archtech.store.dto.SignupRequest;
+import com.archtech.store.model.UserAccount;
+import com.archtech.store.services.UserAccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full signin (lookup plus BCrypt verify) at a pinned BCrypt strength. The
+ * credential cache is off, so every call pays for the hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SigninBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "12"})
+    private int bcryptStrength;
+
+    private ConfigurableApplicationContext context;
+    private UserAccountService userAccountService;
+    private SigninRequest signin;
+    private SigninRequest wrongPassword;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = EmployeeFixture.start(EmployeeFixture.database(10_000),
+                "store.security.hashing.algorithm=bcrypt",
+                "store.security.hashing.bcrypt-strength=" + bcryptStrength,
+                "store.security.credential-cache.enabled=false");
+        userAccountService = context.getBean(UserAccountService.class);
+
+        // Fixtures are reused between runs, so every run signs up its own user
+        String userName = "bench" + System.nanoTime();
+        UserAccount user = userAccountService.signup(
+                new SignupRequest("Benchmark User", userName, userName + "@example.com", PASSWORD)).join();
+        signin = new SigninRequest(user.getUserName(), PASSWORD);
+        wrongPassword = new SigninRequest(user.getUserName(), PASSWORD + "!");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<UserAccount> signin() {
+        return userAccountService.signin(signin).join();
+    }
+
+    @Benchmark
+    public Optional<UserAccount> signinWrongPassword() {
+        return userAccountService.signin(wrongPassword).join();
+    }
+}
@@ -0,0 +1,29 @@
+package com.archtech.store.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Lets a handler give its own async request a timeout other than
+ * spring.mvc.async.request-timeout, by storing a Duration under
+ * {@link #TIMEOUT_ATTRIBUTE}. Needed for StreamingResponseBody, which has no
+ * timeout of its own; the timeout is applied just before the request goes
+ * async.
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeout";
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Duration timeout
+                && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(timeout.toMillis());
+        }
+    }
+}
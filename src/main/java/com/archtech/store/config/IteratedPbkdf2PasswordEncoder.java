@@ -0,0 +1,70 @@
+package com.archtech.store.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PBKDF2-HMAC-SHA256 with the iteration count stored in the hash, as
+ * "iterations$hex(salt + hash)". Spring's Pbkdf2PasswordEncoder leaves the
+ * count out, so a hash could only be verified with the exact count it was
+ * written with. Here the count can change, for example after recalibration,
+ * and older hashes still verify and report that they need an upgrade.
+ */
+public final class IteratedPbkdf2PasswordEncoder implements PasswordEncoder {
+
+    private static final int SALT_LENGTH = 16;
+
+    private final int iterations;
+    private final Map<Integer, Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+    public IteratedPbkdf2PasswordEncoder(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return iterations + "$" + encoderFor(iterations).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        int separator = encodedPassword != null ? encodedPassword.indexOf('$') : -1;
+        Integer stored = separator > 0 ? parseIterations(encodedPassword.substring(0, separator)) : null;
+        if (stored == null) {
+            return false;
+        }
+        return encoderFor(stored).matches(rawPassword, encodedPassword.substring(separator + 1));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int separator = encodedPassword != null ? encodedPassword.indexOf('$') : -1;
+        Integer stored = separator > 0 ? parseIterations(encodedPassword.substring(0, separator)) : null;
+        return stored == null || stored < iterations;
+    }
+
+    private Pbkdf2PasswordEncoder encoderFor(int count) {
+        return encoders.computeIfAbsent(count, c ->
+                new Pbkdf2PasswordEncoder("", SALT_LENGTH, c, SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+    }
+
+    private static Integer parseIterations(String value) {
+        try {
+            int count = Integer.parseInt(value);
+            return count > 0 ? count : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
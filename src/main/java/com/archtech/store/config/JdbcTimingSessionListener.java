@@ -0,0 +1,42 @@
+package com.archtech.store.config;
+
+import com.archtech.store.services.QueryCounter;
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time spent executing each JDBC statement or batch to the
+ * QueryCounter bound to the current thread. Hibernate creates one per session
+ * (hibernate.session.events.auto in application.properties); a session is
+ * used by one thread at a time, so the start time needs no synchronization.
+ */
+public class JdbcTimingSessionListener implements SessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record();
+    }
+
+    private void record() {
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null) {
+            counter.jdbcTime(System.nanoTime() - startedAt);
+        }
+    }
+}
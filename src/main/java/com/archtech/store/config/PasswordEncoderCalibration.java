@@ -0,0 +1,78 @@
+package com.archtech.store.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Picks hashing cost parameters for this machine. Each scheme is timed once at a
+ * known cost, and the time is extrapolated to the cost that fits the target
+ * verify time. The result never drops below a floor that is still safe on fast
+ * hardware.
+ */
+public final class PasswordEncoderCalibration {
+
+    public static final int MIN_BCRYPT_STRENGTH = 10;
+    public static final int MAX_BCRYPT_STRENGTH = 16;
+    public static final int MIN_PBKDF2_ITERATIONS = 310_000;
+
+    private static final int PBKDF2_PROBE_ITERATIONS = 100_000;
+    private static final int SAMPLES = 3;
+    private static final String PROBE_PASSWORD = "calibration-probe";
+
+    private PasswordEncoderCalibration() {}
+
+    /**
+     * Highest BCrypt strength whose verify time stays within the target.
+     * Each strength step doubles the work.
+     */
+    public static int bcryptStrength(Duration target) {
+        return bcryptStrength(target, medianNanos(BCryptPasswordEncoder::new, MIN_BCRYPT_STRENGTH));
+    }
+
+    public static int bcryptStrength(Duration target, long nanosAtMinimum) {
+        int strength = MIN_BCRYPT_STRENGTH;
+        long estimate = nanosAtMinimum;
+        while (strength < MAX_BCRYPT_STRENGTH && estimate * 2 <= target.toNanos()) {
+            strength++;
+            estimate *= 2;
+        }
+        return strength;
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256 iteration count whose verify time is close to the
+     * target. The cost grows linearly with the iteration count.
+     */
+    public static int pbkdf2Iterations(Duration target) {
+        return pbkdf2Iterations(target, medianNanos(IteratedPbkdf2PasswordEncoder::new, PBKDF2_PROBE_ITERATIONS));
+    }
+
+    public static int pbkdf2Iterations(Duration target, long nanosAtProbe) {
+        double scale = (double) target.toNanos() / Math.max(1, nanosAtProbe);
+        long iterations = (long) (PBKDF2_PROBE_ITERATIONS * scale);
+        // Round down to a whole thousand so restarts on the same machine agree
+        iterations = iterations / 1000 * 1000;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_PBKDF2_ITERATIONS, iterations));
+    }
+
+    /**
+     * Median time of one verify at the given cost; the first run warms up the JIT
+     */
+    static long medianNanos(IntFunction<PasswordEncoder> encoderForCost, int cost) {
+        PasswordEncoder encoder = encoderForCost.apply(cost);
+        String hash = encoder.encode(PROBE_PASSWORD);
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches(PROBE_PASSWORD, hash);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,25 @@
+package com.archtech.store.config;
+
+import com.archtech.store.services.QueryCounter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements one request to this route may send, overriding
+ * store.query-budget.default-max. On a controller class it applies to every
+ * route the class declares without its own budget.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+    /** Use for routes whose statement count grows with their input, such as bulk imports */
+    int UNLIMITED = QueryCounter.UNLIMITED;
+
+    int value();
+}
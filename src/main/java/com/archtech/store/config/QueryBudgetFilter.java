@@ -0,0 +1,160 @@
+package com.archtech.store.config;
+
+import com.archtech.store.services.QueryCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Counts the SQL statements and JDBC time of every API request and reports
+ * them in the X-Query-Count and X-Query-Time-Ms response headers. The headers
+ * are written when the response starts, so statements sent while the body is
+ * being written (lazy loads during serialization) count towards the budget
+ * but not the headers.
+ *
+ * Each request gets store.query-budget.default-max statements unless its
+ * route declares a @QueryBudget (applied by QueryBudgetInterceptor). With
+ * store.query-budget.enforce, as in the dev and test profiles, the statement
+ * over budget fails the request; otherwise the request is logged at WARN. A
+ * statement sent store.query-budget.repeat-warning times or more in one
+ * request is logged as a likely N+1.
+ *
+ * Streamed exports write their body on another thread and are not counted.
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+    private static final String COUNTER = QueryBudgetFilter.class.getName() + ".counter";
+
+    private final boolean enabled;
+    private final int defaultMax;
+    private final boolean enforce;
+    private final int repeatWarning;
+
+    public QueryBudgetFilter(@Value("${store.query-budget.enabled:true}") boolean enabled,
+                             @Value("${store.query-budget.default-max:20}") int defaultMax,
+                             @Value("${store.query-budget.enforce:false}") boolean enforce,
+                             @Value("${store.query-budget.repeat-warning:10}") int repeatWarning) {
+        this.enabled = enabled;
+        this.defaultMax = defaultMax;
+        this.enforce = enforce;
+        this.repeatWarning = repeatWarning;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    // Async handlers finish on a second dispatch, which must see the same counter
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter counter = (QueryCounter) request.getAttribute(COUNTER);
+        if (counter == null) {
+            counter = new QueryCounter(request.getMethod() + " " + request.getRequestURI(), defaultMax, enforce);
+            request.setAttribute(COUNTER, counter);
+        }
+
+        HeaderWritingResponse counted = new HeaderWritingResponse(response, counter);
+        QueryCounter previous = QueryCounter.bind(counter);
+        try {
+            chain.doFilter(request, counted);
+        } finally {
+            QueryCounter.bind(previous);
+        }
+
+        if (!isAsyncStarted(request)) {
+            counted.writeHeaders();
+            report(counter);
+        }
+    }
+
+    private void report(QueryCounter counter) {
+        if (counter.isOverBudget()) {
+            // Only reached without enforcement; with it the request has already failed
+            log.warn("{} sent {} SQL statements, over its budget of {}", counter.getName(),
+                    counter.getStatements(), counter.getBudget());
+        }
+        counter.getRepeatedStatements(repeatWarning).forEach((sql, times) ->
+                log.warn("Possible N+1 in {}: the same statement ran {} times: {}", counter.getName(), times, sql));
+    }
+
+    // Adds the headers just before the response commits, which is the last moment they can be set
+    private static final class HeaderWritingResponse extends HttpServletResponseWrapper {
+
+        private final QueryCounter counter;
+        private boolean headersWritten;
+
+        HeaderWritingResponse(HttpServletResponse response, QueryCounter counter) {
+            super(response);
+            this.counter = counter;
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(QUERY_COUNT_HEADER, Integer.toString(counter.getStatements()));
+            setHeader(QUERY_TIME_HEADER, String.format(Locale.ROOT, "%.3f", counter.getJdbcMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
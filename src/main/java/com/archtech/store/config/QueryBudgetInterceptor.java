@@ -0,0 +1,34 @@
+package com.archtech.store.config;
+
+import com.archtech.store.services.QueryCounter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Names the request's QueryCounter after its route and applies the route's
+ * @QueryBudget, once the handler is known. Nothing has queried the database
+ * yet at this point except Spring Security, which this application does not
+ * back with the database.
+ */
+class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter == null || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+
+        QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+        if (budget == null) {
+            budget = method.getBeanType().getAnnotation(QueryBudget.class);
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? request.getMethod() + " " + pattern : counter.getName();
+        counter.limit(route, budget != null ? budget.value() : counter.getBudget());
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.archtech.store.config;
+
+import com.archtech.store.services.QueryCounter;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Charges every statement Hibernate prepares to the QueryCounter bound to the
+ * current thread, if any. Registered in application.properties through
+ * hibernate.session_factory.statement_inspector; Hibernate takes only one
+ * inspector, so anything else that needs to see the SQL extends this one.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null) {
+            counter.statement(sql);
+        }
+        return sql;
+    }
+}
@@ -1,20 +1,64 @@
 package com.archtech.store.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    /**
+     * New hashes are written as {id}hash with the configured algorithm, at a cost
+     * calibrated on startup to the target verify time unless pinned explicitly.
+     * Both algorithms stay registered so existing hashes keep verifying, and
+     * hashes without a prefix (written before this encoder) are treated as BCrypt.
+     * Hashes from another algorithm or at a lower cost report
+     * upgradeEncoding() = true and are re-hashed on the next successful signin.
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${store.security.hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${store.security.hashing.target-verify-time:250ms}") Duration targetVerifyTime,
+            @Value("${store.security.hashing.bcrypt-strength:0}") int bcryptStrength,
+            @Value("${store.security.hashing.pbkdf2-iterations:0}") int pbkdf2Iterations) {
+        if (!algorithm.equals("bcrypt") && !algorithm.equals("pbkdf2")) {
+            throw new IllegalStateException("Unsupported password hashing algorithm: " + algorithm);
+        }
+
+        // Only calibrate the algorithm in use; the other one only verifies old
+        // hashes, and both read the cost of those from the hash itself
+        boolean bcrypt = algorithm.equals("bcrypt");
+        int strength = bcryptStrength > 0 ? bcryptStrength
+                : bcrypt ? PasswordEncoderCalibration.bcryptStrength(targetVerifyTime)
+                : PasswordEncoderCalibration.MIN_BCRYPT_STRENGTH;
+        int iterations = pbkdf2Iterations > 0 ? pbkdf2Iterations
+                : !bcrypt ? PasswordEncoderCalibration.pbkdf2Iterations(targetVerifyTime)
+                : PasswordEncoderCalibration.MIN_PBKDF2_ITERATIONS;
+
+        log.info("Password hashing: {} ({}), target verify time {} ms", algorithm,
+                bcrypt ? "strength " + strength : iterations + " iterations", targetVerifyTime.toMillis());
+
+        BCryptPasswordEncoder bcryptEncoder = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, Map.of(
+                "bcrypt", bcryptEncoder,
+                "pbkdf2", new IteratedPbkdf2PasswordEncoder(iterations)));
+        encoder.setDefaultPasswordEncoderForMatches(bcryptEncoder);
+        return encoder;
     }
     
     @Bean
@@ -0,0 +1,219 @@
+package com.archtech.store.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs statements that run longer than the threshold, with their duration and
+ * row count, instead of tracing every statement and bind value.
+ *
+ * SQLite does most of a query's work while its rows are read, so a query is
+ * timed from execute until its result set is exhausted or closed. Updates and
+ * batches are timed around the execute call and report the rows they changed.
+ * Each entry carries duration_ms and rows as key/value pairs, which the
+ * structured log formats emit as fields. A sample rate below 1 keeps only
+ * that fraction of slow statements, so a slow spell can't flood the log.
+ */
+public class SlowQueryLoggingDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLoggingDataSource.class);
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+
+    public SlowQueryLoggingDataSource(DataSource target, Duration threshold, double sampleRate) {
+        super(target);
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private void report(String sql, long startedAt, long rows) {
+        long nanos = System.nanoTime() - startedAt;
+        if (nanos < thresholdNanos || !log.isWarnEnabled()) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        log.atWarn()
+                .addKeyValue("duration_ms", millis)
+                .addKeyValue("rows", rows)
+                .log("Slow query took {} ms, {} rows: {}", millis, rows, sql);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SlowQueryLoggingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Proxies compare by identity; Hibernate keeps statements and result sets in hash maps
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = SlowQueryLoggingDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement", "prepareCall" ->
+                        proxy(method.getReturnType(), new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        // The query whose rows are still being read, if any
+        private Query open;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("close") && open != null) {
+                    open.finish();
+                }
+                Object result = SlowQueryLoggingDataSource.invoke(target, method, args);
+                if (name.equals("getResultSet") && result != null && open != null) {
+                    return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, open));
+                }
+                return result;
+            }
+
+            if (open != null) {
+                open.finish();
+            }
+            // Plain statements pass their SQL to execute
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            long startedAt = System.nanoTime();
+            Object result = SlowQueryLoggingDataSource.invoke(target, method, args);
+            switch (result) {
+                case ResultSet resultSet -> {
+                    open = new Query(statementSql, startedAt);
+                    return proxy(ResultSet.class, new ResultSetHandler(resultSet, open));
+                }
+                case Boolean hasResultSet when hasResultSet -> open = new Query(statementSql, startedAt);
+                case Boolean ignored -> report(statementSql, startedAt, target.getUpdateCount());
+                case Number updated -> report(statementSql, startedAt, updated.longValue());
+                case int[] counts -> report(statementSql, startedAt, Arrays.stream(counts).filter(c -> c > 0).sum());
+                case long[] counts -> report(statementSql, startedAt, Arrays.stream(counts).filter(c -> c > 0).sum());
+                case null, default -> {
+                }
+            }
+            return result;
+        }
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Query query;
+
+        ResultSetHandler(ResultSet target, Query query) {
+            this.target = target;
+            this.query = query;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = SlowQueryLoggingDataSource.invoke(target, method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if ((Boolean) result) {
+                        query.rows++;
+                    } else {
+                        query.finish();
+                    }
+                }
+                case "close" -> query.finish();
+                default -> {
+                }
+            }
+            return result;
+        }
+    }
+
+    private final class Query {
+        private final String sql;
+        private final long startedAt;
+        private long rows;
+        private boolean finished;
+
+        Query(String sql, long startedAt) {
+            this.sql = sql;
+            this.startedAt = startedAt;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                report(sql, startedAt, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.archtech.store.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * SQLite connection pools: one writer connection and a read-only pool.
+ *
+ * Every connection gets the same tuning pragmas (journal mode, synchronous,
+ * busy timeout, page cache, mmap). In WAL mode readers never block the writer
+ * and the writer never blocks readers. Only writers still take turns, so all
+ * writes queue for the one write connection in Hikari instead of
+ * busy-waiting on SQLite's lock.
+ *
+ * The application sees one DataSource. Connections are fetched lazily and
+ * routed by the transaction's read-only flag. @Transactional(readOnly = true),
+ * including the read methods Spring Data repositories inherit, uses the read
+ * pool. Everything else, including work outside a transaction, uses the
+ * writer. Hibernate hands the connection back after every transaction, so one
+ * open-in-view session can read from the pool and then write.
+ *
+ * Actuator binds both pools' connection wait, usage and occupancy metrics.
+ * With store.logging.slow-query.enabled both pools are wrapped in a
+ * SlowQueryLoggingDataSource; otherwise statements reach the pools directly.
+ *
+ * Nothing may need a second write connection while holding the first, which
+ * is why Employee and Product ids come from SingleWriterIdGenerator instead
+ * of Hibernate's table generator.
+ */
+@Configuration
+public class SqliteDataSourceConfig {
+
+    private final String url;
+    private final Duration busyTimeout;
+    private final int cacheSize;
+    private final long mmapSize;
+
+    public SqliteDataSourceConfig(@Value("${spring.datasource.url}") String url,
+                                  @Value("${store.sqlite.busy-timeout:5s}") Duration busyTimeout,
+                                  @Value("${store.sqlite.cache-size:-65536}") int cacheSize,
+                                  @Value("${store.sqlite.mmap-size:268435456}") long mmapSize) {
+        this.url = url;
+        this.busyTimeout = busyTimeout;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+    }
+
+    // Flyway migrates through the write connection, before Hibernate starts
+    @Bean(destroyMethod = "close")
+    @FlywayDataSource
+    public HikariDataSource sqliteWriteDataSource(
+            @Value("${store.sqlite.journal-mode:WAL}") String journalMode,
+            @Value("${store.sqlite.synchronous:NORMAL}") String synchronous) {
+        SQLiteConfig config = tuned();
+        // Journal mode is stored in the database file; setting it on the writer is enough
+        config.setJournalMode(JournalMode.valueOf(journalMode.toUpperCase(Locale.ROOT)));
+        config.setSynchronous(SynchronousMode.valueOf(synchronous.toUpperCase(Locale.ROOT)));
+        return pool("sqlite-write", config, 1, 1, false);
+    }
+
+    // Creating the database and switching it to WAL are left to the writer
+    @Bean(destroyMethod = "close")
+    @DependsOn("sqliteWriteDataSource")
+    public HikariDataSource sqliteReadDataSource(@Value("${store.sqlite.read-pool-size:4}") int readPoolSize) {
+        SQLiteConfig config = tuned();
+        // Lets Connection.setReadOnly() switch PRAGMA query_only on an open connection;
+        // Hikari reapplies read-only whenever a connection returns to the pool
+        config.setExplicitReadOnly(true);
+        return pool("sqlite-read", config, readPoolSize, readPoolSize, true);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("sqliteWriteDataSource") DataSource writer,
+                                 @Qualifier("sqliteReadDataSource") DataSource reader,
+                                 @Value("${store.logging.slow-query.enabled:false}") boolean slowQueryLog,
+                                 @Value("${store.logging.slow-query.threshold:200ms}") Duration slowQueryThreshold,
+                                 @Value("${store.logging.slow-query.sample-rate:1.0}") double slowQuerySampleRate) {
+        if (slowQueryLog) {
+            writer = new SlowQueryLoggingDataSource(writer, slowQueryThreshold, slowQuerySampleRate);
+            reader = new SlowQueryLoggingDataSource(reader, slowQueryThreshold, slowQuerySampleRate);
+        }
+
+        ReadOnlyTransactionRoutingDataSource router = new ReadOnlyTransactionRoutingDataSource();
+        router.setTargetDataSources(Map.of(false, writer, true, reader));
+        router.setDefaultTargetDataSource(writer);
+        router.afterPropertiesSet();
+
+        // Defers the pool checkout to the first statement, by which time the
+        // transaction's read-only flag has been published
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(router);
+        // sqlite-jdbc defaults; declared so the proxy doesn't open a connection to find out
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        return lazy;
+    }
+
+    private SQLiteConfig tuned() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout((int) busyTimeout.toMillis());
+        config.setCacheSize(cacheSize);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        return config;
+    }
+
+    private HikariDataSource pool(String name, SQLiteConfig sqlite, int size, int minimumIdle, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setDataSourceProperties(sqlite.toProperties());
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(minimumIdle);
+        config.setReadOnly(readOnly);
+        return new HikariDataSource(config);
+    }
+
+    // Read-only transactions go to the read pool, everything else to the writer
+    static class ReadOnlyTransactionRoutingDataSource extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+    }
+}
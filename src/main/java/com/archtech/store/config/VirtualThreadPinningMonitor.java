@@ -0,0 +1,66 @@
+package com.archtech.store.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Logs every virtual thread that blocks while pinned to its carrier for longer
+ * than the threshold, with the frames that pinned it. Streams the JDK's own
+ * jdk.VirtualThreadPinned JFR event, so nothing is recorded to disk.
+ * Only active when spring.threads.virtual.enabled=true.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final int LOGGED_FRAMES = 8;
+
+    private final RecordingStream stream = new RecordingStream();
+    private final LongAdder pinnedEvents = new LongAdder();
+
+    public VirtualThreadPinningMonitor(
+            @Value("${store.threads.pinning-monitor.threshold:20ms}") Duration threshold) {
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::report);
+        stream.startAsync();
+    }
+
+    /**
+     * Pinned blocking events seen since startup
+     */
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedEvents.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        log.warn("Virtual thread pinned for {} ms:\n\t{}", event.getDuration().toMillis(),
+                frames.stream()
+                        .limit(LOGGED_FRAMES)
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                + ":" + frame.getLineNumber())
+                        .collect(Collectors.joining("\n\t")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.archtech.store.config;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Sizes the virtual thread scheduler so JDBC cannot starve it.
+ *
+ * Every SQLite call is a JNI call, and on Java 21 a virtual thread inside native
+ * code pins its carrier until the call returns. That includes the time SQLite
+ * spends sleeping in its busy handler while another connection holds the write
+ * lock. At most one call runs per pooled connection. So when virtual threads are
+ * enabled, the scheduler gets as many carriers as there are connections, on top
+ * of one per core. Even with every connection busy, request handling keeps a
+ * full set of carriers, and the connection holding the lock can always be
+ * scheduled to finish.
+ *
+ * This runs before the first virtual thread exists, because the JDK reads the
+ * setting once, when the scheduler is created. An explicit
+ * -Djdk.virtualThreadScheduler.parallelism always wins.
+ */
+public class VirtualThreadSchedulerSizing implements EnvironmentPostProcessor {
+
+    static final String PARALLELISM = "jdk.virtualThreadScheduler.parallelism";
+    static final String MAX_POOL_SIZE = "jdk.virtualThreadScheduler.maxPoolSize";
+
+    private final Log log;
+
+    public VirtualThreadSchedulerSizing(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(VirtualThreadSchedulerSizing.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (!virtualThreads || System.getProperty(PARALLELISM) != null) {
+            return;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        // Read pool plus the one write connection (see SqliteDataSourceConfig)
+        int connections = environment.getProperty("store.sqlite.read-pool-size", Integer.class, 4) + 1;
+        int parallelism = cores + connections;
+
+        System.setProperty(PARALLELISM, String.valueOf(parallelism));
+        if (System.getProperty(MAX_POOL_SIZE) == null) {
+            System.setProperty(MAX_POOL_SIZE, String.valueOf(Math.max(256, parallelism)));
+        }
+        log.info("Virtual thread scheduler parallelism " + parallelism
+                + " (" + cores + " cores + " + connections + " pooled connections)");
+    }
+}
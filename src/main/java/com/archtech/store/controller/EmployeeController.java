@@ -1,41 +1,94 @@
 package com.archtech.store.controller;
 
+import com.archtech.store.config.AsyncTimeoutInterceptor;
+import com.archtech.store.config.QueryBudget;
+import com.archtech.store.dto.CursorPage;
+import com.archtech.store.dto.DepartmentStats;
+import com.archtech.store.dto.EmployeeBatchResponse;
 import com.archtech.store.dto.EmployeeRequest;
 import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.dto.ImportReport;
+import com.archtech.store.dto.ReportingChainEntry;
+import com.archtech.store.dto.SubtreeEntry;
+import com.archtech.store.exception.InvalidBatchRequestException;
+import com.archtech.store.exception.InvalidCursorException;
+import com.archtech.store.exception.InvalidExportFormatException;
+import com.archtech.store.exception.InvalidSubtreeRequestException;
 import com.archtech.store.model.Employee;
+import com.archtech.store.services.EmployeeExportService;
+import com.archtech.store.services.EmployeeImportService;
 import com.archtech.store.services.EmployeeService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/employees")
 public class EmployeeController {
 
     private final EmployeeService service;
+    private final EmployeeImportService importService;
+    private final EmployeeExportService exportService;
+    private final int maxCursorPageSize;
+    private final int maxBatchIds;
+    private final Duration exportTimeout;
 
-    public EmployeeController(EmployeeService service) {
+    public EmployeeController(EmployeeService service, EmployeeImportService importService,
+                              EmployeeExportService exportService,
+                              @Value("${store.employees.cursor.max-size:1000}") int maxCursorPageSize,
+                              @Value("${store.employees.batch.max-ids:100}") int maxBatchIds,
+                              @Value("${store.employees.export.timeout:30m}") Duration exportTimeout) {
         this.service = service;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.maxCursorPageSize = maxCursorPageSize;
+        this.maxBatchIds = maxBatchIds;
+        this.exportTimeout = exportTimeout;
     }
 
     /**
      * Get all employees with pagination
      */
     @GetMapping
+    @QueryBudget(2)
     public ResponseEntity<Page<EmployeeResponse>> getAllEmployees(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<EmployeeResponse> employees = service.getAllEmployeesPaged(pageable)
-                .map(EmployeeResponse::new);
-        return ResponseEntity.ok(employees);
+        return ResponseEntity.ok(service.getAllEmployeesPaged(pageable));
+    }
+
+    /**
+     * Get all employees with keyset (cursor) pagination.
+     * Pass an empty "after" for the first page, then each response's nextCursor.
+     * Larger sizes than store.employees.cursor.max-size are cut down to it.
+     */
+    @GetMapping(params = "after")
+    @QueryBudget(2)
+    public ResponseEntity<CursorPage<EmployeeResponse>> getAllEmployeesAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort) {
+        if (size < 1) {
+            throw new InvalidCursorException("Page size must be at least 1");
+        }
+        return ResponseEntity.ok(service.getEmployeesAfter(after, sort, Math.min(size, maxCursorPageSize)));
     }
 
     /**
@@ -58,21 +111,60 @@ public class EmployeeController {
         return new ResponseEntity<>(new EmployeeResponse(created), HttpStatus.CREATED);
     }
 
+    /**
+     * Bulk import from newline-delimited JSON, one employee object per line.
+     * Managers referenced by managerEmail must appear on an earlier line.
+     */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @QueryBudget(QueryBudget.UNLIMITED)
+    public ResponseEntity<ImportReport> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importNdjson(body));
+    }
+
+    /**
+     * Bulk import from CSV with a header line
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @QueryBudget(QueryBudget.UNLIMITED)
+    public ResponseEntity<ImportReport> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importCsv(body));
+    }
+
+    /**
+     * Export all employees as NDJSON or CSV, streamed straight to the response
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            @RequestParam(defaultValue = "ndjson") String format, HttpServletRequest request) {
+        // Large tables take longer to stream than other async requests are allowed
+        request.setAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, exportTimeout);
+        return switch (format.toLowerCase()) {
+            case "ndjson" -> ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.ndjson\"")
+                    .body(exportService::exportNdjson);
+            case "csv" -> ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("text/csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\"")
+                    .body(exportService::exportCsv);
+            default -> throw new InvalidExportFormatException(format);
+        };
+    }
+
     /**
      * Get all managers
      */
     @GetMapping("/managers")
+    @QueryBudget(2)
     public ResponseEntity<List<EmployeeResponse>> getAllManagers() {
-        List<EmployeeResponse> managers = service.getAllManagers().stream()
-                .map(EmployeeResponse::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(managers);
+        return ResponseEntity.ok(service.getAllManagers());
     }
 
     /**
      * Get employee by ID
      */
     @GetMapping("/id/{id}")
+    @QueryBudget(2)
     public ResponseEntity<EmployeeResponse> getEmployeeById(@PathVariable Long id) {
         return service.getEmployee(id)
                 .map(EmployeeResponse::new)
@@ -80,10 +172,48 @@ public class EmployeeController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get up to store.employees.batch.max-ids employees by id, e.g. ?ids=1,2,3
+     */
+    @GetMapping("/batch")
+    @QueryBudget(2)
+    public ResponseEntity<EmployeeBatchResponse> getEmployeesById(@RequestParam(required = false) List<Long> ids) {
+        return ResponseEntity.ok(getBatch(ids));
+    }
+
+    /**
+     * The same with the ids as a JSON array body, for lists too long for a URL
+     */
+    @PostMapping("/batch")
+    @QueryBudget(2)
+    public ResponseEntity<EmployeeBatchResponse> postEmployeesById(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(getBatch(ids));
+    }
+
+    private EmployeeBatchResponse getBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidBatchRequestException("At least one id is required");
+        }
+        if (ids.contains(null)) {
+            throw new InvalidBatchRequestException("Ids must not be null");
+        }
+        List<Long> distinct = ids.stream().distinct().toList();
+        if (distinct.size() > maxBatchIds) {
+            throw new InvalidBatchRequestException("At most " + maxBatchIds + " ids can be fetched at once");
+        }
+
+        Map<Long, Employee> found = service.getEmployees(distinct);
+        Map<Long, EmployeeResponse> employees = new LinkedHashMap<>();
+        found.forEach((id, employee) -> employees.put(id, new EmployeeResponse(employee)));
+        List<Long> missing = distinct.stream().filter(id -> !found.containsKey(id)).toList();
+        return new EmployeeBatchResponse(employees, missing);
+    }
+
     /**
      * Get employee by email
      */
     @GetMapping("/email/{email}")
+    @QueryBudget(2)
     public ResponseEntity<EmployeeResponse> getEmployeeByEmail(@PathVariable String email) {
         return service.getEmployee(email)
                 .map(EmployeeResponse::new)
@@ -152,6 +282,7 @@ public class EmployeeController {
      * Search employees with filters
      */
     @GetMapping("/search")
+    @QueryBudget(3)
     public ResponseEntity<List<EmployeeResponse>> searchEmployees(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String dept,
@@ -159,24 +290,28 @@ public class EmployeeController {
             @RequestParam(required = false) Double maxSalary,
             @RequestParam(required = false) Boolean isManager) {
         
-        List<EmployeeResponse> results = service.searchEmployees(name, dept, minSalary, maxSalary, isManager)
-                .stream()
-                .map(EmployeeResponse::new)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(results);
+        return ResponseEntity.ok(service.searchEmployees(name, dept, minSalary, maxSalary, isManager));
+    }
+
+    /**
+     * Ranked full-text search over employee name and email
+     */
+    @GetMapping("/search/text")
+    @QueryBudget(3)
+    public ResponseEntity<Page<EmployeeResponse>> searchByText(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(service.searchByText(q, PageRequest.of(page, size)));
     }
 
     /**
      * Get all employees in a department
      */
     @GetMapping("/department/{dept}")
+    @QueryBudget(2)
     public ResponseEntity<List<EmployeeResponse>> getEmployeesByDepartment(@PathVariable String dept) {
-        List<EmployeeResponse> employees = service.getEmployeesByDepartment(dept)
-                .stream()
-                .map(EmployeeResponse::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(employees);
+        return ResponseEntity.ok(service.getEmployeesByDepartment(dept));
     }
 
     /**
@@ -187,16 +322,40 @@ public class EmployeeController {
         return ResponseEntity.ok(service.getAllDepartments());
     }
 
+    /**
+     * Get headcount and salary totals for every department
+     */
+    @GetMapping("/departments/stats")
+    public ResponseEntity<List<DepartmentStats>> getDepartmentStats() {
+        return ResponseEntity.ok(service.getDepartmentStats());
+    }
+
     /**
      * Get all subordinates for a manager
      */
     @GetMapping("/manager/{id}/subordinates")
+    @QueryBudget(2)
     public ResponseEntity<List<EmployeeResponse>> getSubordinates(@PathVariable Long id) {
-        List<EmployeeResponse> subordinates = service.getSubordinates(id)
-                .stream()
-                .map(EmployeeResponse::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(subordinates);
+        return ResponseEntity.ok(service.getSubordinates(id));
+    }
+
+    /**
+     * Get everyone below a manager, optionally limited to maxDepth levels, with pagination
+     */
+    @GetMapping("/manager/{id}/subtree")
+    @QueryBudget(3)
+    public ResponseEntity<Page<SubtreeEntry>> getSubtree(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (maxDepth != null && maxDepth < 1) {
+            throw new InvalidSubtreeRequestException("maxDepth must be at least 1");
+        }
+        if (page < 0 || size < 1) {
+            throw new InvalidSubtreeRequestException("page must be at least 0 and size at least 1");
+        }
+        return ResponseEntity.ok(service.getSubtree(id, maxDepth, PageRequest.of(page, size)));
     }
 
     /**
@@ -232,12 +391,9 @@ public class EmployeeController {
      * Get reporting hierarchy (chain of command) for an employee
      */
     @GetMapping("/{id}/hierarchy")
-    public ResponseEntity<List<EmployeeResponse>> getReportingHierarchy(@PathVariable Long id) {
-        List<EmployeeResponse> hierarchy = service.getReportingHierarchy(id)
-                .stream()
-                .map(EmployeeResponse::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(hierarchy);
+    @QueryBudget(2)
+    public ResponseEntity<List<ReportingChainEntry>> getReportingHierarchy(@PathVariable Long id) {
+        return ResponseEntity.ok(service.getReportingHierarchy(id));
     }
 
 }
@@ -0,0 +1,50 @@
+package com.archtech.store.controller;
+
+import com.archtech.store.dto.AccountNameFilterStatistics;
+import com.archtech.store.dto.GroupCommitStatistics;
+import com.archtech.store.dto.PasswordHashingStatistics;
+import com.archtech.store.services.AccountNameFilter;
+import com.archtech.store.services.GroupCommitWriter;
+import com.archtech.store.services.PasswordHashingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+public class StatisticsController {
+
+    private final PasswordHashingService passwordHashing;
+    private final AccountNameFilter accountNames;
+    private final GroupCommitWriter writer;
+
+    public StatisticsController(PasswordHashingService passwordHashing, AccountNameFilter accountNames,
+                                GroupCommitWriter writer) {
+        this.passwordHashing = passwordHashing;
+        this.accountNames = accountNames;
+        this.writer = writer;
+    }
+
+    /**
+     * Password hashing pool load: queue depth, rejections, queue wait and hash time
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHashingStatistics> getPasswordHashingStatistics() {
+        return ResponseEntity.ok(passwordHashing.getStatistics());
+    }
+
+    /**
+     * Username/email filter fill and how many availability checks it answered alone
+     */
+    @GetMapping("/account-names")
+    public ResponseEntity<AccountNameFilterStatistics> getAccountNameStatistics() {
+        return ResponseEntity.ok(accountNames.getStatistics());
+    }
+
+    /**
+     * Group-commit writer: queue depth, group sizes and commit time
+     */
+    @GetMapping("/writes")
+    public ResponseEntity<GroupCommitStatistics> getWriteStatistics() {
+        return ResponseEntity.ok(writer.getStatistics());
+    }
+}
@@ -3,6 +3,7 @@ package com.archtech.store.controller;
 import com.archtech.store.model.*;
 import com.archtech.store.services.*;
 import com.archtech.store.dto.*;
+import com.archtech.store.exception.PasswordHashingOverloadedException;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,7 +11,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @CrossOrigin(origins = {"http://localhost:5173", "/**"})
@@ -25,9 +27,9 @@ public class UserAccountController {
 
     // Create user account
     @PostMapping
-    public ResponseEntity<UserAccount> createUser(@RequestBody UserAccount user) {
-        UserAccount created = this.service.createUser(user);
-        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<UserAccount>> createUser(@RequestBody UserAccount user) {
+        return this.service.createUser(user)
+                .thenApply(created -> new ResponseEntity<>(created, HttpStatus.CREATED));
     }
 
     // Get all user
@@ -60,16 +62,16 @@ public class UserAccountController {
 
     // Update user password
     @PutMapping("/{id}/password")
-    public ResponseEntity<UserAccount> updatePassword(
+    public CompletableFuture<ResponseEntity<UserAccount>> updatePassword(
         @PathVariable Long id,
         @RequestParam String password
-    ) throws RuntimeException {
-        try {
-            UserAccount updated = this.service.updatePassword(id, password);
-            return ResponseEntity.ok(updated);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+    ) {
+        return this.service.updatePassword(id, password)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(ex -> {
+                    failureOf(ex);
+                    return ResponseEntity.notFound().build();
+                });
     }
 
     // Delete user account
@@ -81,9 +83,8 @@ public class UserAccountController {
 
     // Check user password
     @PostMapping("/{id}/check-password")
-    public ResponseEntity<Boolean> checkPassword(@PathVariable Long id, @RequestParam String password) {
-        boolean matches = this.service.checkPassword(id, password);
-        return ResponseEntity.ok(matches);
+    public CompletableFuture<ResponseEntity<Boolean>> checkPassword(@PathVariable Long id, @RequestParam String password) {
+        return this.service.checkPassword(id, password).thenApply(ResponseEntity::ok);
     }
 
     // Check user email
@@ -95,38 +96,41 @@ public class UserAccountController {
     
     // Authentication endpoints
     @PostMapping("/signup")
-    public ResponseEntity<ApiResponse> signup(@Valid @RequestBody SignupRequest signupRequest) {
-        try {
-            UserAccount user = this.service.signup(signupRequest);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(new ApiResponse(true, "User registered successfully", user));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(new ApiResponse(false, e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<ApiResponse>> signup(@Valid @RequestBody SignupRequest signupRequest) {
+        return this.service.signup(signupRequest)
+                .thenApply(user -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(new ApiResponse(true, "User registered successfully", user)))
+                .exceptionally(ex -> ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse(false, failureOf(ex).getMessage())));
     }
     
     @PostMapping("/signin")
-    public ResponseEntity<ApiResponse> signin(@Valid @RequestBody SigninRequest signinRequest) {
-        Optional<UserAccount> userOpt = this.service.signin(signinRequest);
-        
-        if (userOpt.isPresent()) {
-            return ResponseEntity.ok(new ApiResponse(true, "Login successful", userOpt.get()));
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new ApiResponse(false, "Invalid username/email or password"));
-        }
+    public CompletableFuture<ResponseEntity<ApiResponse>> signin(@Valid @RequestBody SigninRequest signinRequest) {
+        return this.service.signin(signinRequest).thenApply(userOpt -> {
+            if (userOpt.isPresent()) {
+                return ResponseEntity.ok(new ApiResponse(true, "Login successful", userOpt.get()));
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(new ApiResponse(false, "Invalid username/email or password"));
+            }
+        });
     }
     
     @PutMapping("/{id}/change-password")
-    public ResponseEntity<ApiResponse> changePassword(@PathVariable Long id, @Valid @RequestBody ChangePasswordRequest changePasswordRequest) {
-        try {
-            UserAccount user = this.service.changePassword(id, changePasswordRequest);
-            return ResponseEntity.ok(new ApiResponse(true, "Password changed successfully", user));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(new ApiResponse(false, e.getMessage()));
+    public CompletableFuture<ResponseEntity<ApiResponse>> changePassword(@PathVariable Long id, @Valid @RequestBody ChangePasswordRequest changePasswordRequest) {
+        return this.service.changePassword(id, changePasswordRequest)
+                .thenApply(user -> ResponseEntity.ok(new ApiResponse(true, "Password changed successfully", user)))
+                .exceptionally(ex -> ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse(false, failureOf(ex).getMessage())));
+    }
+
+    // Unwraps an async failure; hashing overload is rethrown for the global 503 handler
+    private static Throwable failureOf(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof PasswordHashingOverloadedException overloaded) {
+            throw overloaded;
         }
+        return cause;
     }
     
     @GetMapping("/check-username/{username}")
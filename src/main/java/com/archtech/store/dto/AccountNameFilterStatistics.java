@@ -0,0 +1,88 @@
+package com.archtech.store.dto;
+
+/**
+ * State of the in-memory username/email filters and how often they spared a query
+ */
+public class AccountNameFilterStatistics {
+    private final boolean enabled;
+    private final boolean loaded;
+    private final Filter userNames;
+    private final Filter emails;
+    private final long answeredFromFilter;
+    private final long databaseChecks;
+    private final long falsePositives;
+
+    public AccountNameFilterStatistics(boolean enabled, boolean loaded, Filter userNames, Filter emails,
+                                       long answeredFromFilter, long databaseChecks, long falsePositives) {
+        this.enabled = enabled;
+        this.loaded = loaded;
+        this.userNames = userNames;
+        this.emails = emails;
+        this.answeredFromFilter = answeredFromFilter;
+        this.databaseChecks = databaseChecks;
+        this.falsePositives = falsePositives;
+    }
+
+    // Getters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Filter getUserNames() {
+        return userNames;
+    }
+
+    public Filter getEmails() {
+        return emails;
+    }
+
+    /**
+     * Lookups answered "not taken" without touching the database
+     */
+    public long getAnsweredFromFilter() {
+        return answeredFromFilter;
+    }
+
+    /**
+     * Lookups the filter could not rule out, checked against the database
+     */
+    public long getDatabaseChecks() {
+        return databaseChecks;
+    }
+
+    /**
+     * Database checks that found nothing after all
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    public static class Filter {
+        private final long keys;
+        private final long capacity;
+        private final double expectedFalsePositiveRate;
+
+        public Filter(long keys, long capacity, double expectedFalsePositiveRate) {
+            this.keys = keys;
+            this.capacity = capacity;
+            this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+        }
+
+        // Getters
+        public long getKeys() {
+            return keys;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public double getExpectedFalsePositiveRate() {
+            return expectedFalsePositiveRate;
+        }
+    }
+}
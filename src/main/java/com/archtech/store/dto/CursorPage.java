@@ -0,0 +1,56 @@
+package com.archtech.store.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated listing. Pass nextCursor back as the
+ * "after" parameter to fetch the following page; it is null on the last page.
+ */
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    public CursorPage() {}
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.size = content.size();
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,42 @@
+package com.archtech.store.dto;
+
+/**
+ * Headcount and salary aggregates for one department
+ */
+public class DepartmentStats {
+    private final String dept;
+    private final long headcount;
+    private final long salaried;
+    private final double totalSalary;
+
+    public DepartmentStats(String dept, long headcount, long salaried, double totalSalary) {
+        this.dept = dept;
+        this.headcount = headcount;
+        this.salaried = salaried;
+        this.totalSalary = totalSalary;
+    }
+
+    // Getters
+    public String getDept() {
+        return dept;
+    }
+
+    public long getHeadcount() {
+        return headcount;
+    }
+
+    /**
+     * Number of employees with a salary on record
+     */
+    public long getSalaried() {
+        return salaried;
+    }
+
+    public double getTotalSalary() {
+        return totalSalary;
+    }
+
+    public Double getAverageSalary() {
+        return salaried == 0 ? null : totalSalary / salaried;
+    }
+}
@@ -0,0 +1,37 @@
+package com.archtech.store.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Employees fetched by id in one call, keyed by id in the order they were
+ * asked for. Ids with no employee are listed in missing.
+ */
+public class EmployeeBatchResponse {
+    private Map<Long, EmployeeResponse> employees;
+    private List<Long> missing;
+
+    public EmployeeBatchResponse() {}
+
+    public EmployeeBatchResponse(Map<Long, EmployeeResponse> employees, List<Long> missing) {
+        this.employees = employees;
+        this.missing = missing;
+    }
+
+    // Getters and Setters
+    public Map<Long, EmployeeResponse> getEmployees() {
+        return employees;
+    }
+
+    public void setEmployees(Map<Long, EmployeeResponse> employees) {
+        this.employees = employees;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
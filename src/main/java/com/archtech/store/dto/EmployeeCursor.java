@@ -0,0 +1,73 @@
+package com.archtech.store.dto;
+
+import com.archtech.store.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset paginated employee listing: the sort order plus the
+ * sort key and id of the last row returned. Clients only ever see it as an
+ * opaque URL-safe token.
+ */
+public class EmployeeCursor {
+
+    public enum SortKey { ID, NAME }
+
+    private static final String SEPARATOR = "\n";
+
+    private final SortKey sortKey;
+    private final String lastName;
+    private final long lastId;
+
+    public EmployeeCursor(SortKey sortKey, String lastName, long lastId) {
+        this.sortKey = sortKey;
+        this.lastName = lastName;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Cursor positioned before the first row of the given sort order
+     */
+    public static EmployeeCursor start(String sort) {
+        try {
+            return new EmployeeCursor(SortKey.valueOf(sort.toUpperCase()), "", 0L);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Unsupported sort for cursor pagination: " + sort);
+        }
+    }
+
+    /**
+     * Cursor positioned right after the given row
+     */
+    public EmployeeCursor after(EmployeeResponse last) {
+        return new EmployeeCursor(sortKey, sortKey == SortKey.NAME ? last.getEmployeeName() : "", last.getId());
+    }
+
+    public static EmployeeCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 3);
+            return new EmployeeCursor(SortKey.valueOf(parts[0]), parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException(token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + lastId + SEPARATOR + lastName;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+}
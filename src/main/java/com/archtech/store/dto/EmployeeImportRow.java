@@ -0,0 +1,22 @@
+package com.archtech.store.dto;
+
+import jakarta.validation.constraints.Email;
+
+/**
+ * One row of a bulk employee import. Besides managerId (an existing employee),
+ * the manager can be given by email, which may also point at a row earlier in
+ * the same import.
+ */
+public class EmployeeImportRow extends EmployeeRequest {
+
+    @Email(message = "Manager email must be valid")
+    private String managerEmail;
+
+    public String getManagerEmail() {
+        return managerEmail;
+    }
+
+    public void setManagerEmail(String managerEmail) {
+        this.managerEmail = managerEmail;
+    }
+}
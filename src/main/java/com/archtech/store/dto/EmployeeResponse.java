@@ -14,6 +14,7 @@ public class EmployeeResponse {
     private Double salary;
     private boolean isManager;
     private Integer numSubordinates;
+    private Integer span;
     private ManagerSummary manager;
     private LocalDateTime createdDate;
     private LocalDateTime updatedDate;
@@ -28,11 +29,33 @@ public class EmployeeResponse {
         this.salary = employee.getSalary();
         this.isManager = employee.getIsManager();
         this.numSubordinates = employee.getNumSubordinates();
+        this.span = employee.getSpan();
         this.manager = employee.getManager() != null ? new ManagerSummary(employee.getManager()) : null;
         this.createdDate = employee.getCreatedDate();
         this.updatedDate = employee.getUpdatedDate();
     }
 
+    /**
+     * Projection constructor used by the repository's JPQL read queries, which
+     * select the report counters and manager columns in the same statement
+     */
+    public EmployeeResponse(Long id, String employeeName, String email, String dept, Double salary,
+                            Boolean isManager, Integer numSubordinates, Integer span,
+                            Long managerId, String managerName, String managerEmail, String managerDept,
+                            LocalDateTime createdDate, LocalDateTime updatedDate) {
+        this.id = id;
+        this.employeeName = employeeName;
+        this.email = email;
+        this.dept = dept;
+        this.salary = salary;
+        this.isManager = isManager;
+        this.numSubordinates = numSubordinates;
+        this.span = span;
+        this.manager = managerId != null ? new ManagerSummary(managerId, managerName, managerEmail, managerDept) : null;
+        this.createdDate = createdDate;
+        this.updatedDate = updatedDate;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -90,6 +113,14 @@ public class EmployeeResponse {
         this.numSubordinates = numSubordinates;
     }
 
+    public Integer getSpan() {
+        return span;
+    }
+
+    public void setSpan(Integer span) {
+        this.span = span;
+    }
+
     public ManagerSummary getManager() {
         return manager;
     }
@@ -0,0 +1,85 @@
+package com.archtech.store.dto;
+
+/**
+ * Throughput of the group-commit writer since startup
+ */
+public class GroupCommitStatistics {
+    private final boolean enabled;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final long committed;
+    private final long failed;
+    private final long batches;
+    private final double averageBatchSize;
+    private final long largestBatch;
+    private final double averageBatchMillis;
+
+    public GroupCommitStatistics(boolean enabled, int queueDepth, int queueCapacity, int maxBatchSize,
+                                 long committed, long failed, long batches, double averageBatchSize,
+                                 long largestBatch, double averageBatchMillis) {
+        this.enabled = enabled;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.committed = committed;
+        this.failed = failed;
+        this.batches = batches;
+        this.averageBatchSize = averageBatchSize;
+        this.largestBatch = largestBatch;
+        this.averageBatchMillis = averageBatchMillis;
+    }
+
+    // Getters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Writes that committed
+     */
+    public long getCommitted() {
+        return committed;
+    }
+
+    /**
+     * Writes that threw and were rolled back to their savepoint
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Transactions committed, one per group
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    public double getAverageBatchSize() {
+        return averageBatchSize;
+    }
+
+    public long getLargestBatch() {
+        return largestBatch;
+    }
+
+    /**
+     * Time from the start of a group's transaction to its commit
+     */
+    public double getAverageBatchMillis() {
+        return averageBatchMillis;
+    }
+}
@@ -0,0 +1,88 @@
+package com.archtech.store.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk employee import, with one entry per input row
+ */
+public class ImportReport {
+    private int total;
+    private int created;
+    private int failed;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public void add(RowResult result) {
+        rows.add(result);
+        total++;
+        if (result.getStatus() == RowStatus.CREATED) {
+            created++;
+        } else {
+            failed++;
+        }
+    }
+
+    // Getters
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RowResult> getRows() {
+        return rows;
+    }
+
+    public enum RowStatus { CREATED, FAILED }
+
+    public static class RowResult {
+        private final int line;
+        private final RowStatus status;
+        private final String email;
+        private final Long id;
+        private final String error;
+
+        private RowResult(int line, RowStatus status, String email, Long id, String error) {
+            this.line = line;
+            this.status = status;
+            this.email = email;
+            this.id = id;
+            this.error = error;
+        }
+
+        public static RowResult created(int line, String email, Long id) {
+            return new RowResult(line, RowStatus.CREATED, email, id, null);
+        }
+
+        public static RowResult failed(int line, String email, String error) {
+            return new RowResult(line, RowStatus.FAILED, email, null, error);
+        }
+
+        // Getters
+        public int getLine() {
+            return line;
+        }
+
+        public RowStatus getStatus() {
+            return status;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -22,6 +22,13 @@ public class ManagerSummary {
         }
     }
 
+    public ManagerSummary(Long id, String name, String email, String dept) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.dept = dept;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
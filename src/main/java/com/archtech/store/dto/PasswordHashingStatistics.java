@@ -0,0 +1,92 @@
+package com.archtech.store.dto;
+
+/**
+ * Load and latency of the password hashing pool since startup
+ */
+public class PasswordHashingStatistics {
+    private final int poolSize;
+    private final int activeThreads;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long submitted;
+    private final long completed;
+    private final long rejected;
+    private final Timing queueWait;
+    private final Timing hashing;
+
+    public PasswordHashingStatistics(int poolSize, int activeThreads, int queueDepth, int queueCapacity,
+                                     long submitted, long completed, long rejected,
+                                     Timing queueWait, Timing hashing) {
+        this.poolSize = poolSize;
+        this.activeThreads = activeThreads;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.submitted = submitted;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.queueWait = queueWait;
+        this.hashing = hashing;
+    }
+
+    // Getters
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Time tasks spent waiting for a free hashing thread
+     */
+    public Timing getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Time spent inside BCrypt itself
+     */
+    public Timing getHashing() {
+        return hashing;
+    }
+
+    public static class Timing {
+        private final double averageMillis;
+        private final double maxMillis;
+
+        public Timing(double averageMillis, double maxMillis) {
+            this.averageMillis = averageMillis;
+            this.maxMillis = maxMillis;
+        }
+
+        // Getters
+        public double getAverageMillis() {
+            return averageMillis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.archtech.store.dto;
+
+/**
+ * Lightweight projection of one link in an employee's chain of command.
+ * Level 0 is the employee itself, level 1 its manager, and so on.
+ */
+public interface ReportingChainEntry {
+    Long getId();
+    String getEmployeeName();
+    String getEmail();
+    String getDept();
+    Double getSalary();
+    Boolean getIsManager();
+    Long getManagerId();
+    Integer getLevel();
+}
@@ -0,0 +1,18 @@
+package com.archtech.store.dto;
+
+/**
+ * Lightweight projection of one employee below a manager.
+ * Depth 1 is a direct report, depth 2 a report's report, and so on.
+ */
+public interface SubtreeEntry {
+    Long getId();
+    String getEmployeeName();
+    String getEmail();
+    String getDept();
+    Double getSalary();
+    Boolean getIsManager();
+    Long getManagerId();
+    Integer getNumSubordinates();
+    Integer getSpan();
+    Integer getDepth();
+}
@@ -0,0 +1,7 @@
+package com.archtech.store.exception;
+
+public class InvalidBatchRequestException extends RuntimeException {
+    public InvalidBatchRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.archtech.store.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("Invalid pagination cursor: " + cursor, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.archtech.store.exception;
+
+public class InvalidExportFormatException extends RuntimeException {
+    public InvalidExportFormatException(String format) {
+        super("Unsupported export format: " + format + " (expected ndjson or csv)");
+    }
+}
@@ -0,0 +1,7 @@
+package com.archtech.store.exception;
+
+public class InvalidSubtreeRequestException extends RuntimeException {
+    public InvalidSubtreeRequestException(String message) {
+        super(message);
+    }
+}
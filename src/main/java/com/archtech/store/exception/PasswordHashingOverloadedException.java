@@ -0,0 +1,14 @@
+package com.archtech.store.exception;
+
+public class PasswordHashingOverloadedException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(int retryAfterSeconds) {
+        super("Too many password operations in progress, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
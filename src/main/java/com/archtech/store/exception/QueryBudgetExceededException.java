@@ -0,0 +1,14 @@
+package com.archtech.store.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    private final int budget;
+
+    public QueryBudgetExceededException(String name, int budget, String sql) {
+        super(name + " sent more than its budget of " + budget + " SQL statements; the next one was: " + sql);
+        this.budget = budget;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+}
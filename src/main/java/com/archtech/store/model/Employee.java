@@ -1,5 +1,6 @@
 package com.archtech.store.model;
 
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -9,10 +10,11 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -20,12 +22,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee")
 // @Table(name = "Employee")
 public class Employee {
 
     // Data fields
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @SingleWriterId
     private long id;
 
     @Column(nullable = false, length = 150)
@@ -40,7 +44,7 @@ public class Employee {
     @Column(nullable = true, length = 12)
     private Double salary;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "manager_id")
     private Employee manager;
 
@@ -51,6 +55,15 @@ public class Employee {
     @Column(nullable = false)
     private boolean isManager;
 
+    // Maintained by ReportCountService in the same transaction as the change
+    // that moves reports; counting subordinates would load the whole collection
+    @Column(nullable = false)
+    private int directReports;
+
+    // Direct and indirect reports: everyone below this employee in the org chart
+    @Column(nullable = false)
+    private int span;
+
     @CreationTimestamp
     private LocalDateTime createdDate;
 
@@ -106,7 +119,15 @@ public class Employee {
     }
 
     public Integer getNumSubordinates() {
-        return (subordinates == null) ? 0 : subordinates.size();
+        return this.directReports;
+    }
+
+    /**
+     * Adjusts the materialized counters by the reports gained (or, negative, lost)
+     */
+    public void addReports(int directReports, int span) {
+        this.directReports += directReports;
+        this.span += span;
     }
 
     public void setSubordinates(Set<Employee> subordinates) {
@@ -149,6 +170,14 @@ public class Employee {
         return this.isManager;
     }
 
+    public int getDirectReports() {
+        return this.directReports;
+    }
+
+    public int getSpan() {
+        return this.span;
+    }
+
     public Set<Employee> getSubordinates() {
         return this.subordinates;
     }
@@ -0,0 +1,69 @@
+package com.archtech.store.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One row of the management tree's closure table: the ancestor manages the
+ * descendant, depth levels down (0 links an employee to itself). Written
+ * only by native statements in EmployeeRepository; mapped so that JPQL
+ * queries can join it.
+ */
+@Entity
+@Immutable
+@IdClass(EmployeeClosure.Key.class)
+public class EmployeeClosure {
+
+    @Id
+    private long ancestorId;
+
+    @Id
+    private long descendantId;
+
+    @Column(nullable = false)
+    private int depth;
+
+    // Default constructor required by JPA
+    protected EmployeeClosure() {}
+
+    public Long getAncestorId() {
+        return this.ancestorId;
+    }
+
+    public Long getDescendantId() {
+        return this.descendantId;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public static class Key implements Serializable {
+        private long ancestorId;
+        private long descendantId;
+
+        public Key() {}
+
+        public Key(long ancestorId, long descendantId) {
+            this.ancestorId = ancestorId;
+            this.descendantId = descendantId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && ancestorId == key.ancestorId && descendantId == key.descendantId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestorId, descendantId);
+        }
+    }
+}
@@ -2,17 +2,21 @@ package com.archtech.store.model;
 
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 // @Table(name = "Product")
 public class Product {
 
     // Data fields
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @SingleWriterId
     private long id;
     private String name;
     private String description;
@@ -0,0 +1,19 @@
+package com.archtech.store.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Ids handed out in memory by SingleWriterIdGenerator, for entities whose
+ * inserts all go through the one SQLite write connection
+ */
+@IdGeneratorType(SingleWriterIdGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface SingleWriterId {
+}
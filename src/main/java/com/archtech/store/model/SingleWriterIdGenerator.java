@@ -0,0 +1,79 @@
+package com.archtech.store.model;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Assigns ids from an in-memory counter, seeded once from MAX(id) on the
+ * caller's own connection.
+ *
+ * Replaces the table generator that AUTO ids use on SQLite. That generator
+ * reserves id blocks in a separate transaction on a second connection, which
+ * cannot work with a single write connection: under WAL the caller's
+ * transaction fails with SQLITE_BUSY_SNAPSHOT once it has read anything, and
+ * in rollback-journal mode the second connection waits on the first. Because
+ * only this process writes the database, and every persistence unit in it
+ * shares the counter for a table, the counter cannot hand out an id that is
+ * already taken. Ids are still known before the insert, so JDBC batching
+ * keeps working.
+ */
+public class SingleWriterIdGenerator implements IdentifierGenerator {
+
+    // One counter per database and table for the whole process. Each persistence
+    // unit builds its own generators, and a second one on the same file (a test
+    // context, a restart) must not seed a counter of its own behind the first.
+    private static final Map<String, AtomicLong> COUNTERS = new HashMap<>();
+    private static final ReentrantLock SEED_LOCK = new ReentrantLock();
+
+    private volatile AtomicLong last;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        AtomicLong counter = last;
+        if (counter == null) {
+            counter = seed(session, entity);
+        }
+        return counter.incrementAndGet();
+    }
+
+    // ReentrantLock rather than synchronized: the seed query must not pin a virtual thread
+    private AtomicLong seed(SharedSessionContractImplementor session, Object entity) {
+        SEED_LOCK.lock();
+        try {
+            if (last != null) {
+                return last;
+            }
+            AbstractEntityPersister persister = (AbstractEntityPersister) session.getEntityPersister(null, entity);
+            // Plain JDBC on the session's connection; a query through the session would auto-flush mid-persist
+            Connection connection = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+            String key = connection.getMetaData().getURL() + " " + persister.getTableName();
+            AtomicLong counter = COUNTERS.get(key);
+            if (counter == null) {
+                String sql = "select max(" + persister.getIdentifierColumnNames()[0] + ") from "
+                        + persister.getTableName();
+                try (PreparedStatement statement = connection.prepareStatement(sql);
+                     ResultSet result = statement.executeQuery()) {
+                    counter = new AtomicLong(result.next() ? result.getLong(1) : 0L);
+                }
+                COUNTERS.put(key, counter);
+            }
+            last = counter;
+            return counter;
+        } catch (SQLException e) {
+            throw new HibernateException("Could not seed ids for " + entity.getClass().getSimpleName(), e);
+        } finally {
+            SEED_LOCK.unlock();
+        }
+    }
+}
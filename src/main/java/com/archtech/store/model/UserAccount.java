@@ -4,21 +4,28 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user_account")
 // @Table(name = "UserAccount")
 public class UserAccount {
 
     // Data fields
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // SQLite only auto-increments an INTEGER primary key (see V1__baseline.sql)
+    @Column(columnDefinition = "integer")
     private Long id;
 
     @Column(nullable = false)
@@ -36,7 +43,8 @@ public class UserAccount {
     @Column(nullable = false, unique = true, length = 50)
     private String email;
 
-    @Column(nullable = false, length = 100)
+    // Room for an {id} prefix and the longer PBKDF2 encoding
+    @Column(nullable = false, length = 255)
     private String password;
 
     // Default constructor required by JPA
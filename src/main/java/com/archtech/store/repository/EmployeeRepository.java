@@ -1,13 +1,26 @@
 package com.archtech.store.repository;
 
+import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.dto.ReportingChainEntry;
+import com.archtech.store.dto.SubtreeEntry;
 import com.archtech.store.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
@@ -18,41 +31,251 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String employeeEmail);
 
     // Manager queries
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT e FROM Employee e WHERE e.isManager = true")
     List<Employee> findAllManagers();
 
     @Query("SELECT e FROM Employee e WHERE e.manager.id = :managerId")
     List<Employee> findSubordinates(@Param("managerId") Long managerId);
 
+    // Managers ordered from least to most direct reports, read in order from idx_employee_manager_load
+    @Query("SELECT e.id FROM Employee e WHERE e.isManager = true AND e.id <> :excludedId " +
+           "ORDER BY e.directReports, e.id")
+    List<Long> findManagerIdsByLoad(@Param("excludedId") Long excludedId);
+
+    // Moves all direct reports of a manager in one statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.manager = :replacement, e.updatedDate = :now WHERE e.manager.id = :managerId")
+    int reassignSubordinates(@Param("managerId") Long managerId,
+                             @Param("replacement") Employee replacement,
+                             @Param("now") LocalDateTime now);
+
+    // (employee id, manager id) pairs used to build the in-memory org chart
+    @Query("SELECT e.id, e.manager.id FROM Employee e WHERE e.manager IS NOT NULL")
+    List<Object[]> findAllManagerLinks();
+
+    // Ids of an employee and everyone above it, nearest first
+    @Query(value = "WITH RECURSIVE chain(id, manager_id, level) AS (" +
+                   "  SELECT id, manager_id, 0 FROM employee WHERE id = :employeeId" +
+                   "  UNION ALL" +
+                   "  SELECT e.id, e.manager_id, c.level + 1 FROM employee e" +
+                   "  JOIN chain c ON e.id = c.manager_id WHERE c.level < 1000" +
+                   ") " +
+                   "SELECT id FROM chain ORDER BY level",
+           nativeQuery = true)
+    List<Number> findChainIds(@Param("employeeId") Long employeeId);
+
+    // Every employee's direct report and span counts computed from manager_id,
+    // as (id, direct_reports, span); the depth cap stops the walk on cyclic data
+    String ACTUAL_REPORT_COUNTS = "WITH RECURSIVE reports(root, id, depth) AS (" +
+            "  SELECT manager_id, id, 1 FROM employee WHERE manager_id IS NOT NULL" +
+            "  UNION ALL" +
+            "  SELECT r.root, e.id, r.depth + 1 FROM employee e" +
+            "  JOIN reports r ON e.manager_id = r.id WHERE r.depth < 1000" +
+            "), " +
+            "counted(id, direct_reports, span) AS (" +
+            "  SELECT root, SUM(depth = 1), COUNT(*) FROM reports GROUP BY root" +
+            "), " +
+            "actual(id, direct_reports, span) AS (" +
+            "  SELECT e.id, COALESCE(c.direct_reports, 0), COALESCE(c.span, 0)" +
+            "  FROM employee e LEFT JOIN counted c ON c.id = e.id" +
+            ") ";
+
+    @Query(value = ACTUAL_REPORT_COUNTS + "SELECT COUNT(*) FROM actual a JOIN employee e ON e.id = a.id " +
+                   "WHERE e.direct_reports <> a.direct_reports OR e.span <> a.span",
+           nativeQuery = true)
+    long countReportCountDrift();
+
+    // Only the employee table's cache regions need invalidating, not every region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employee"))
+    @Query(value = ACTUAL_REPORT_COUNTS + "UPDATE employee SET direct_reports = a.direct_reports, span = a.span " +
+                   "FROM actual a WHERE a.id = employee.id " +
+                   "AND (employee.direct_reports <> a.direct_reports OR employee.span <> a.span)",
+           nativeQuery = true)
+    int reconcileReportCounts();
+
+    // Whole chain of command in one round trip; the level cap stops the walk on cyclic data
+    @Query(value = "WITH RECURSIVE chain(id, manager_id, level) AS (" +
+                   "  SELECT id, manager_id, 0 FROM employee WHERE id = :employeeId" +
+                   "  UNION ALL" +
+                   "  SELECT e.id, e.manager_id, c.level + 1 FROM employee e" +
+                   "  JOIN chain c ON e.id = c.manager_id WHERE c.level < 1000" +
+                   ") " +
+                   "SELECT e.id AS id, e.employee_name AS employeeName, e.email AS email, " +
+                   "e.dept AS dept, e.salary AS salary, e.is_manager AS isManager, " +
+                   "e.manager_id AS managerId, c.level AS level " +
+                   "FROM chain c JOIN employee e ON e.id = c.id ORDER BY c.level",
+           nativeQuery = true)
+    List<ReportingChainEntry> findReportingChain(@Param("employeeId") Long employeeId);
+
+    // Everyone below a manager down to maxDepth, nearest first, as one join
+    // over idx_employee_closure_ancestor_depth and the employee primary key
+    @Query(value = "SELECT e.id AS id, e.employeeName AS employeeName, e.email AS email, e.dept AS dept, " +
+                   "e.salary AS salary, e.isManager AS isManager, e.manager.id AS managerId, " +
+                   "e.directReports AS numSubordinates, e.span AS span, c.depth AS depth " +
+                   "FROM EmployeeClosure c JOIN Employee e ON e.id = c.descendantId " +
+                   "WHERE c.ancestorId = :managerId AND c.depth BETWEEN 1 AND :maxDepth " +
+                   "ORDER BY c.depth, c.descendantId",
+           countQuery = "SELECT COUNT(c) FROM EmployeeClosure c " +
+                        "WHERE c.ancestorId = :managerId AND c.depth BETWEEN 1 AND :maxDepth")
+    Page<SubtreeEntry> findSubtree(@Param("managerId") Long managerId,
+                                   @Param("maxDepth") int maxDepth,
+                                   Pageable pageable);
+
+    // Whether one employee is the other or above it, from the closure row linking them
+    @Query("SELECT COUNT(c) > 0 FROM EmployeeClosure c WHERE c.ancestorId = :ancestorId AND c.descendantId = :descendantId")
+    boolean isInChainOf(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+
+    @Query("SELECT c.descendantId FROM EmployeeClosure c WHERE c.ancestorId = :managerId AND c.depth = 1")
+    List<Long> findDirectReportIds(@Param("managerId") Long managerId);
+
+    // Closure table upkeep, in the transaction of the write that changes manager_id.
+    // Only the employee_closure table's cached queries need invalidating.
+
+    // Links new employees to themselves and to every manager above them, walking
+    // up manager_id, so the rows must be flushed first
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employee_closure"))
+    @Query(value = "INSERT INTO employee_closure (ancestor_id, descendant_id, depth) " +
+                   "WITH RECURSIVE up(descendant_id, ancestor_id, depth) AS (" +
+                   "  SELECT id, id, 0 FROM employee WHERE id IN :ids" +
+                   "  UNION ALL" +
+                   "  SELECT u.descendant_id, e.manager_id, u.depth + 1 FROM up u" +
+                   "  JOIN employee e ON e.id = u.ancestor_id WHERE e.manager_id IS NOT NULL AND u.depth < 1000" +
+                   ") " +
+                   "SELECT ancestor_id, descendant_id, depth FROM up",
+           nativeQuery = true)
+    int addToClosure(@Param("ids") Collection<Long> ids);
+
+    // Cuts the links between an employee's subtree (itself included) and everyone above it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employee_closure"))
+    @Query(value = "DELETE FROM employee_closure " +
+                   "WHERE descendant_id IN (SELECT descendant_id FROM employee_closure WHERE ancestor_id = :id) " +
+                   "AND ancestor_id IN (SELECT ancestor_id FROM employee_closure WHERE descendant_id = :id AND depth > 0)",
+           nativeQuery = true)
+    int detachSubtree(@Param("id") Long id);
+
+    // Links detached subtrees, rooted at the given employees, under a manager and everyone above it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employee_closure"))
+    @Query(value = "INSERT INTO employee_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 " +
+                   "FROM employee_closure a JOIN employee_closure d ON d.ancestor_id IN :rootIds " +
+                   "WHERE a.descendant_id = :managerId",
+           nativeQuery = true)
+    int attachSubtrees(@Param("rootIds") Collection<Long> rootIds, @Param("managerId") Long managerId);
+
+    // Drops every link to or from an employee that is being deleted
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employee_closure"))
+    @Query(value = "DELETE FROM employee_closure WHERE ancestor_id = :id OR descendant_id = :id",
+           nativeQuery = true)
+    int removeFromClosure(@Param("id") Long id);
+
     // Department queries
     List<Employee> findByDept(String dept);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT e.dept FROM Employee e WHERE e.dept IS NOT NULL")
     List<String> findAllDepartments();
 
-    // Search queries
-    @Query("SELECT e FROM Employee e WHERE " +
-           "LOWER(e.employeeName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(e.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Employee> searchByNameOrEmail(@Param("searchTerm") String searchTerm);
+    // Per-department headcount, salaried headcount and salary total
+    @Query("SELECT e.dept, COUNT(e), COUNT(e.salary), SUM(e.salary) FROM Employee e " +
+            "WHERE e.dept IS NOT NULL GROUP BY e.dept")
+    List<Object[]> findDepartmentTotals();
+
+    // Full-text search over the employee_fts index (rowid = employee id),
+    // best matches first with the name weighing double. The driver returns
+    // rowid as Integer or Long depending on its size, hence Number.
+    String FTS_ORDER = "ORDER BY bm25(employee_fts, 2.0, 1.0), f.rowid";
+
+    @Query(value = "SELECT f.rowid FROM employee_fts f WHERE employee_fts MATCH :match " + FTS_ORDER,
+           countQuery = "SELECT COUNT(*) FROM employee_fts WHERE employee_fts MATCH :match",
+           nativeQuery = true)
+    Page<Number> searchIdsByNameOrEmail(@Param("match") String match, Pageable pageable);
+
+    @Query(value = "SELECT f.rowid FROM employee_fts f JOIN employee e ON e.id = f.rowid " +
+                   "WHERE employee_fts MATCH :match " +
+                   "AND (:dept IS NULL OR e.dept = :dept) " +
+                   "AND (:minSalary IS NULL OR e.salary >= :minSalary) " +
+                   "AND (:maxSalary IS NULL OR e.salary <= :maxSalary) " +
+                   "AND (:isManager IS NULL OR e.is_manager = :isManager) " + FTS_ORDER,
+           nativeQuery = true)
+    List<Number> searchIds(@Param("match") String match,
+                           @Param("dept") String dept,
+                           @Param("minSalary") Double minSalary,
+                           @Param("maxSalary") Double maxSalary,
+                           @Param("isManager") Boolean isManager);
 
     @Query("SELECT e FROM Employee e WHERE e.salary BETWEEN :minSalary AND :maxSalary")
     List<Employee> findBySalaryRange(@Param("minSalary") Double minSalary, 
                                       @Param("maxSalary") Double maxSalary);
 
-    // Complex search with multiple filters
-    @Query("SELECT e FROM Employee e WHERE " +
-           "(:name IS NULL OR LOWER(e.employeeName) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+    // Validation queries
+    boolean existsByEmail(String email);
+
+    // Full-table export: rows are pulled from the cursor in fetch-size batches
+    // and never collected; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT e FROM Employee e ORDER BY e.id")
+    Stream<Employee> streamAll();
+
+    // Bulk import lookups, one statement per chunk of rows
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT e.id, e.email, e.isManager FROM Employee e WHERE e.email IN :emails OR e.id IN :ids")
+    List<Object[]> findManagerRefs(@Param("emails") Collection<String> emails,
+                                   @Param("ids") Collection<Long> ids);
+
+    // Read-only projections: one statement returns each employee together with
+    // its report counters and manager summary, instead of lazy loads per row
+    String RESPONSE_SELECT = "SELECT new com.archtech.store.dto.EmployeeResponse(" +
+            "e.id, e.employeeName, e.email, e.dept, e.salary, e.isManager, e.directReports, e.span, " +
+            "m.id, m.employeeName, m.email, m.dept, e.createdDate, e.updatedDate) " +
+            "FROM Employee e LEFT JOIN e.manager m ";
+
+    @Query(value = RESPONSE_SELECT,
+           countQuery = "SELECT COUNT(e) FROM Employee e")
+    Page<EmployeeResponse> findAllResponses(Pageable pageable);
+
+    // Keyset pagination: seek past the last row seen instead of OFFSET, and skip the count
+    @Query(RESPONSE_SELECT + "WHERE e.id > :afterId ORDER BY e.id")
+    List<EmployeeResponse> findResponsesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(RESPONSE_SELECT + "WHERE e.employeeName > :afterName OR " +
+           "(e.employeeName = :afterName AND e.id > :afterId) ORDER BY e.employeeName, e.id")
+    List<EmployeeResponse> findResponsesAfterName(@Param("afterName") String afterName,
+                                                  @Param("afterId") Long afterId,
+                                                  Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(RESPONSE_SELECT + "WHERE e.isManager = true")
+    List<EmployeeResponse> findAllManagerResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE m.id = :managerId")
+    List<EmployeeResponse> findSubordinateResponses(@Param("managerId") Long managerId);
+
+    @Query(RESPONSE_SELECT + "WHERE e.dept = :dept")
+    List<EmployeeResponse> findResponsesByDept(@Param("dept") String dept);
+
+    @Query(RESPONSE_SELECT + "WHERE e.id IN :ids")
+    List<EmployeeResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    // Complex search with multiple filters (the name filter goes through searchIds instead)
+    @Query(RESPONSE_SELECT + "WHERE " +
            "(:dept IS NULL OR e.dept = :dept) AND " +
            "(:minSalary IS NULL OR e.salary >= :minSalary) AND " +
            "(:maxSalary IS NULL OR e.salary <= :maxSalary) AND " +
            "(:isManager IS NULL OR e.isManager = :isManager)")
-    List<Employee> searchEmployees(@Param("name") String name,
-                                   @Param("dept") String dept,
-                                   @Param("minSalary") Double minSalary,
-                                   @Param("maxSalary") Double maxSalary,
-                                   @Param("isManager") Boolean isManager);
-
-    // Validation queries
-    boolean existsByEmail(String email);
+    List<EmployeeResponse> searchEmployees(@Param("dept") String dept,
+                                           @Param("minSalary") Double minSalary,
+                                           @Param("maxSalary") Double maxSalary,
+                                           @Param("isManager") Boolean isManager);
 }
@@ -2,8 +2,13 @@ package com.archtech.store.repository;
 
 import com.archtech.store.model.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +20,29 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Long>
     Optional<UserAccount> findByEmail(String email);
     boolean existsByUserName(String userName);
     boolean existsByEmail(String email);
+
+    // Signin lookup: both columns are unique, so this is one statement using their
+    // indexes; it can only return two rows if one user's name is another's email
+    @Query("SELECT u FROM UserAccount u WHERE u.userName = :login OR u.email = :login")
+    List<UserAccount> findByUserNameOrEmail(@Param("login") String login);
+
+    // Every (userName, email) pair, used to build the availability filters
+    @Query("SELECT u.userName, u.email FROM UserAccount u")
+    List<Object[]> findAllUserNamesAndEmails();
+
+    // Sets only the password column, so changes to the account's other columns
+    // committed since it was read are kept. Clears the persistence context, so a
+    // copy loaded earlier in the same group commit can't write the old hash back.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserAccount u SET u.password = :hash WHERE u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("hash") String hash);
+
+    // Compare-and-set used by password changes and background re-hashing: if the
+    // password was changed in the meantime, the hash no longer matches and nothing
+    // is written. Clears the persistence context like updatePasswordHash.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserAccount u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
@@ -0,0 +1,179 @@
+package com.archtech.store.services;
+
+import com.archtech.store.dto.AccountNameFilterStatistics;
+import com.archtech.store.dto.AccountNameFilterStatistics.Filter;
+import com.archtech.store.repository.UserAccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Answers "is this username / email taken?" from memory whenever the answer is no.
+ *
+ * Two counting Bloom filters hold every username and email. They are loaded on
+ * startup and kept current by UserAccountService on signup, create, email
+ * change and delete. A miss in the filter means the name is definitely free and
+ * no query is run. A hit is only probable and is confirmed against the database.
+ *
+ * Until the initial load finishes, every lookup goes to the database. Removals
+ * that arrive during the load are skipped, because they could take away counts
+ * the load has not added yet. Leaving a key in the filter only costs a
+ * confirming query, while a wrong removal could report a taken name as free.
+ * The filters are sized on startup for the larger of the configured capacity
+ * and twice the current row count. Past that, the false positive rate climbs
+ * (see /api/v1/stats/account-names) until the next restart resizes them.
+ */
+@Component
+public class AccountNameFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountNameFilter.class);
+
+    private final UserAccountRepository repository;
+    private final boolean enabled;
+    private final long expectedAccounts;
+    private final double falsePositiveRate;
+
+    private final LongAdder answeredFromFilter = new LongAdder();
+    private final LongAdder databaseChecks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    // Held across the load query; a monitor there would pin virtual threads
+    private final Lock loadLock = new ReentrantLock();
+
+    private volatile Filters filters;
+
+    public AccountNameFilter(UserAccountRepository repository,
+                             @Value("${store.users.name-filter.enabled:true}") boolean enabled,
+                             @Value("${store.users.name-filter.expected-accounts:100000}") long expectedAccounts,
+                             @Value("${store.users.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.expectedAccounts = expectedAccounts;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Builds the filters from the user_account table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        loadLock.lock();
+        try {
+            long capacity = Math.max(expectedAccounts, repository.count() * 2);
+            Filters loading = new Filters(capacity, falsePositiveRate);
+            // Publish first: accounts written from here on are added live, everything
+            // committed before is in the query below
+            this.filters = loading;
+
+            for (Object[] row : repository.findAllUserNamesAndEmails()) {
+                loading.userNames.add((String) row[0]);
+                loading.emails.add((String) row[1]);
+            }
+            loading.loaded = true;
+            log.info("Loaded account name filter: {} accounts, capacity {}", loading.userNames.size(), capacity);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public boolean isUserNameTaken(String userName) {
+        Filters current = readyFilters();
+        if (current != null && !current.userNames.mightContain(userName)) {
+            answeredFromFilter.increment();
+            return false;
+        }
+        return confirm(current, repository.existsByUserName(userName));
+    }
+
+    public boolean isEmailTaken(String email) {
+        Filters current = readyFilters();
+        if (current != null && !current.emails.mightContain(email)) {
+            answeredFromFilter.increment();
+            return false;
+        }
+        return confirm(current, repository.existsByEmail(email));
+    }
+
+    /**
+     * Records a newly saved account
+     */
+    public void add(String userName, String email) {
+        Filters current = filters;
+        if (current != null) {
+            current.userNames.add(userName);
+            current.emails.add(email);
+        }
+    }
+
+    /**
+     * Forgets a deleted account
+     */
+    public void remove(String userName, String email) {
+        Filters current = readyFilters();
+        if (current != null) {
+            current.userNames.remove(userName);
+            current.emails.remove(email);
+        }
+    }
+
+    /**
+     * Applies an email change
+     */
+    public void changeEmail(String oldEmail, String newEmail) {
+        Filters current = filters;
+        if (current != null) {
+            current.emails.add(newEmail);
+            if (current.loaded) {
+                current.emails.remove(oldEmail);
+            }
+        }
+    }
+
+    public AccountNameFilterStatistics getStatistics() {
+        Filters current = filters;
+        return new AccountNameFilterStatistics(enabled, current != null && current.loaded,
+                current != null ? statisticsOf(current.userNames) : null,
+                current != null ? statisticsOf(current.emails) : null,
+                answeredFromFilter.sum(), databaseChecks.sum(), falsePositives.sum());
+    }
+
+    private Filters readyFilters() {
+        Filters current = filters;
+        return current != null && current.loaded ? current : null;
+    }
+
+    private boolean confirm(Filters current, boolean taken) {
+        if (current != null) {
+            databaseChecks.increment();
+            if (!taken) {
+                falsePositives.increment();
+            }
+        }
+        return taken;
+    }
+
+    private static Filter statisticsOf(CountingBloomFilter filter) {
+        return new Filter(filter.size(), filter.capacity(), filter.expectedFalsePositiveRate());
+    }
+
+    private static final class Filters {
+        final CountingBloomFilter userNames;
+        final CountingBloomFilter emails;
+        volatile boolean loaded;
+
+        Filters(long capacity, double falsePositiveRate) {
+            this.userNames = new CountingBloomFilter(capacity, falsePositiveRate);
+            this.emails = new CountingBloomFilter(capacity, falsePositiveRate);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.archtech.store.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter over strings, safe for concurrent use without locks.
+ *
+ * Each slot is a 4-bit counter (16 per long), so keys can be removed as well as
+ * added. A counter that reaches 15 stays there for good, which costs a little
+ * accuracy but can never produce a false negative. mightContain() == false means
+ * the key was definitely never added (or has been removed); true means it
+ * probably was.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long SATURATED = 0xFL;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashFunctions;
+    private final long capacity;
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Sized for the given number of keys at the given false positive rate
+     */
+    public CountingBloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected keys must be positive and the rate between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+
+        this.words = new AtomicLongArray(Math.max(1, words));
+        this.counters = (long) this.words.length() * COUNTERS_PER_WORD;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) counters / expectedKeys * ln2));
+        this.capacity = expectedKeys;
+    }
+
+    public void add(String key) {
+        long hash = hash64(key);
+        for (int i = 0; i < hashFunctions; i++) {
+            increment(index(hash, i));
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * Only call for keys that were added; anything else can cause false negatives
+     */
+    public void remove(String key) {
+        long hash = hash64(key);
+        for (int i = 0; i < hashFunctions; i++) {
+            decrement(index(hash, i));
+        }
+        size.decrementAndGet();
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        for (int i = 0; i < hashFunctions; i++) {
+            if (counter(index(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keys added minus keys removed
+     */
+    public long size() {
+        return size.get();
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * False positive rate expected at the current number of keys
+     */
+    public double expectedFalsePositiveRate() {
+        double keys = Math.max(0, size.get());
+        return Math.pow(1 - Math.exp(-hashFunctions * keys / counters), hashFunctions);
+    }
+
+    private void increment(long index) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = (int) (index % COUNTERS_PER_WORD) * 4;
+        long current;
+        do {
+            current = words.get(word);
+            if (((current >>> shift) & COUNTER_MASK) == SATURATED) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current + (1L << shift)));
+    }
+
+    private void decrement(long index) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = (int) (index % COUNTERS_PER_WORD) * 4;
+        long current;
+        do {
+            current = words.get(word);
+            long value = (current >>> shift) & COUNTER_MASK;
+            // A saturated counter has lost its true count; zero has nothing to remove
+            if (value == SATURATED || value == 0) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current - (1L << shift)));
+    }
+
+    private long counter(long index) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = (int) (index % COUNTERS_PER_WORD) * 4;
+        return (words.get(word) >>> shift) & COUNTER_MASK;
+    }
+
+    // Double hashing: the i-th index is h1 + i * h2, from the two halves of one 64-bit hash
+    private long index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long combined = h1 + (long) i * h2;
+        return Math.floorMod(combined, counters);
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer to spread the bits
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53ec559L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
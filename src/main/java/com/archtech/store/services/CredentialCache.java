@@ -0,0 +1,90 @@
+package com.archtech.store.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Short-lived memory of recent successful password verifications, so a client
+ * signing in again with the same credentials skips the BCrypt cost.
+ *
+ * Entries are keyed by HMAC-SHA256(user id, stored password hash, presented
+ * password) under a random key generated at startup and never persisted. Only
+ * successful verifications are remembered, the stored hash is part of the key
+ * (so a new password can never match an old entry), and entries expire
+ * quickly. Because an HMAC is far cheaper to brute-force than BCrypt, the TTL
+ * and size bound are what keep the exposure small; keep them short.
+ */
+@Component
+public class CredentialCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final Cache<String, Long> verified;
+
+    public CredentialCache(@Value("${store.security.credential-cache.enabled:true}") boolean enabled,
+                           @Value("${store.security.credential-cache.ttl:5m}") Duration ttl,
+                           @Value("${store.security.credential-cache.max-size:10000}") long maxSize) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+
+        this.enabled = enabled;
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Returns true if this exact (user, stored hash, password) triple was verified recently
+     */
+    public boolean isVerified(Long userId, String passwordHash, String rawPassword) {
+        return enabled && verified.getIfPresent(keyOf(userId, passwordHash, rawPassword)) != null;
+    }
+
+    /**
+     * Records a successful BCrypt verification
+     */
+    public void markVerified(Long userId, String passwordHash, String rawPassword) {
+        if (enabled) {
+            verified.put(keyOf(userId, passwordHash, rawPassword), userId);
+        }
+    }
+
+    /**
+     * Drops every entry of a user, e.g. after a password change
+     */
+    public void invalidate(Long userId) {
+        verified.asMap().values().removeIf(userId::equals);
+    }
+
+    private String keyOf(Long userId, String passwordHash, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            // Length-prefix each part so no two triples produce the same input
+            for (String part : new String[] {String.valueOf(userId), passwordHash, rawPassword}) {
+                byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                mac.update(new byte[] {
+                        (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                        (byte) (bytes.length >>> 8), (byte) bytes.length});
+                mac.update(bytes);
+            }
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.archtech.store.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 helpers: comma separated, fields optionally wrapped in
+ * double quotes, with "" as an escaped quote. A quoted field may contain
+ * line breaks; readers join its lines with \n before parsing the record.
+ */
+final class CsvSupport {
+
+    private CsvSupport() {}
+
+    /**
+     * Whether the line holds an odd number of quotes, so it leaves a quoted
+     * field open at its end, or closes one left open by an earlier line
+     */
+    static boolean togglesQuote(String line) {
+        boolean odd = false;
+        for (int i = line.indexOf('"'); i >= 0; i = line.indexOf('"', i + 1)) {
+            odd = !odd;
+        }
+        return odd;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Formats one field, quoting it only when it contains a delimiter,
+     * quote or line break. Null is written as an empty field.
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
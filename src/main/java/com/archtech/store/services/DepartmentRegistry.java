@@ -0,0 +1,148 @@
+package com.archtech.store.services;
+
+import com.archtech.store.dto.DepartmentStats;
+import com.archtech.store.repository.EmployeeRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory catalog of departments with their headcount and salary totals.
+ *
+ * Loaded with one GROUP BY query on startup, before the web server accepts
+ * requests, and then adjusted by the write paths in EmployeeService, never
+ * recomputed. Readers get an immutable
+ * snapshot that is swapped on every change, so reads take no lock and do
+ * no work; writes copy the (small) per-department map.
+ */
+@Component
+public class DepartmentRegistry implements SmartInitializingSingleton {
+
+    private final EmployeeRepository repository;
+    private final GroupCommitWriter writer;
+    private final Lock writeLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = Snapshot.of(new TreeMap<>());
+
+    public DepartmentRegistry(EmployeeRepository repository, GroupCommitWriter writer) {
+        this.repository = repository;
+        this.writer = writer;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the whole catalog from the employee table. Like the org chart,
+     * the totals are read as a write and swapped in by its afterCommit action,
+     * so every commit is counted exactly once: earlier ones by the query,
+     * later ones by their own adjustment.
+     */
+    public void rebuild() {
+        writer.run(() -> {
+            TreeMap<String, DepartmentStats> rebuilt = new TreeMap<>();
+            for (Object[] row : repository.findDepartmentTotals()) {
+                String dept = (String) row[0];
+                Number totalSalary = (Number) row[3];
+                rebuilt.put(dept, new DepartmentStats(dept, ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), totalSalary != null ? totalSalary.doubleValue() : 0.0));
+            }
+
+            writer.afterCommit(() -> {
+                writeLock.lock();
+                try {
+                    this.snapshot = Snapshot.of(rebuilt);
+                } finally {
+                    writeLock.unlock();
+                }
+            });
+        });
+    }
+
+    /**
+     * Counts a new employee
+     */
+    public void add(String dept, Double salary) {
+        update(null, null, dept, salary);
+    }
+
+    /**
+     * Forgets a deleted employee
+     */
+    public void remove(String dept, Double salary) {
+        update(dept, salary, null, null);
+    }
+
+    /**
+     * Applies an employee changing department and/or salary
+     */
+    public void update(String oldDept, Double oldSalary, String newDept, Double newSalary) {
+        writeLock.lock();
+        try {
+            TreeMap<String, DepartmentStats> departments = new TreeMap<>(snapshot.byName);
+            adjust(departments, oldDept, oldSalary, -1);
+            adjust(departments, newDept, newSalary, 1);
+            this.snapshot = Snapshot.of(departments);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Department names in alphabetical order
+     */
+    public List<String> getDepartments() {
+        return snapshot.names;
+    }
+
+    /**
+     * Aggregates for every department, in alphabetical order
+     */
+    public List<DepartmentStats> getStats() {
+        return snapshot.stats;
+    }
+
+    /**
+     * Aggregates for one department, or null if it has no employees
+     */
+    public DepartmentStats getStats(String dept) {
+        return snapshot.byName.get(dept);
+    }
+
+    private static void adjust(Map<String, DepartmentStats> departments, String dept, Double salary, int sign) {
+        if (dept == null) {
+            return;
+        }
+
+        DepartmentStats current = departments.get(dept);
+        long headcount = (current != null ? current.getHeadcount() : 0) + sign;
+        long salaried = (current != null ? current.getSalaried() : 0) + (salary != null ? sign : 0);
+        double totalSalary = (current != null ? current.getTotalSalary() : 0.0) + (salary != null ? sign * salary : 0.0);
+
+        if (salaried == 0) {
+            totalSalary = 0.0; // drop floating point residue
+        }
+
+        if (headcount <= 0) {
+            departments.remove(dept);
+        } else {
+            departments.put(dept, new DepartmentStats(dept, headcount, salaried, totalSalary));
+        }
+    }
+
+    private record Snapshot(Map<String, DepartmentStats> byName, List<String> names, List<DepartmentStats> stats) {
+        static Snapshot of(TreeMap<String, DepartmentStats> byName) {
+            return new Snapshot(Collections.unmodifiableMap(byName),
+                    List.copyOf(byName.keySet()),
+                    List.copyOf(byName.values()));
+        }
+    }
+}
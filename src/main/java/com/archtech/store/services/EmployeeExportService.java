@@ -0,0 +1,145 @@
+package com.archtech.store.services;
+
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every employee to an output stream as NDJSON or CSV.
+ *
+ * Rows come from a database cursor and are written as they arrive, and the
+ * persistence context is cleared every few hundred rows, so memory use does
+ * not grow with the size of the table. Field names match the bulk import, so
+ * an export can be imported again.
+ */
+@Service
+public class EmployeeExportService {
+
+    private static final int CLEAR_INTERVAL = 500;
+    private static final String CSV_HEADER = "id,name,email,dept,salary,isManager,managerId,createdDate,updatedDate";
+
+    private final EmployeeRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    public EmployeeExportService(EmployeeRepository repository, EntityManager entityManager,
+                                 ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+    }
+
+    /**
+     * Writes one JSON object per employee, one per line
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+             Stream<Employee> employees = repository.streamAll()) {
+            json.setRootValueSeparator(null);
+
+            forEachEmployee(employees, employee -> {
+                json.writeStartObject();
+                json.writeNumberField("id", employee.getId());
+                json.writeStringField("name", employee.getEmployeeName());
+                json.writeStringField("email", employee.getEmail());
+                json.writeStringField("dept", employee.getDept());
+                if (employee.getSalary() != null) {
+                    json.writeNumberField("salary", employee.getSalary());
+                } else {
+                    json.writeNullField("salary");
+                }
+                json.writeBooleanField("isManager", Boolean.TRUE.equals(employee.getIsManager()));
+                Long managerId = managerIdOf(employee);
+                if (managerId != null) {
+                    json.writeNumberField("managerId", managerId);
+                } else {
+                    json.writeNullField("managerId");
+                }
+                json.writeStringField("createdDate", format(employee.getCreatedDate()));
+                json.writeStringField("updatedDate", format(employee.getUpdatedDate()));
+                json.writeEndObject();
+                json.writeRaw('\n');
+            });
+        }
+    }
+
+    /**
+     * Writes a header line followed by one CSV record per employee
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream out) throws IOException {
+        try (Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+             Stream<Employee> employees = repository.streamAll()) {
+            csv.write(CSV_HEADER);
+            csv.write('\n');
+
+            forEachEmployee(employees, employee -> {
+                csv.write(String.valueOf(employee.getId()));
+                csv.write(',');
+                csv.write(CsvSupport.escape(employee.getEmployeeName()));
+                csv.write(',');
+                csv.write(CsvSupport.escape(employee.getEmail()));
+                csv.write(',');
+                csv.write(CsvSupport.escape(employee.getDept()));
+                csv.write(',');
+                csv.write(employee.getSalary() != null ? String.valueOf(employee.getSalary()) : "");
+                csv.write(',');
+                csv.write(String.valueOf(Boolean.TRUE.equals(employee.getIsManager())));
+                csv.write(',');
+                Long managerId = managerIdOf(employee);
+                csv.write(managerId != null ? String.valueOf(managerId) : "");
+                csv.write(',');
+                csv.write(CsvSupport.escape(format(employee.getCreatedDate())));
+                csv.write(',');
+                csv.write(CsvSupport.escape(format(employee.getUpdatedDate())));
+                csv.write('\n');
+            });
+        }
+    }
+
+    private void forEachEmployee(Stream<Employee> employees, RowWriter writer) throws IOException {
+        int written = 0;
+        Iterator<Employee> iterator = employees.iterator();
+        while (iterator.hasNext()) {
+            writer.write(iterator.next());
+            if (++written % CLEAR_INTERVAL == 0) {
+                // Detach everything read so far; the cursor itself is unaffected
+                entityManager.clear();
+            }
+        }
+    }
+
+    // Read the id from the lazy proxy itself; Employee.getId() is not recognised
+    // as the identifier getter (long field, Long getter) and would load the manager
+    private Long managerIdOf(Employee employee) {
+        Employee manager = employee.getManager();
+        return manager != null ? (Long) persistenceUnitUtil.getIdentifier(manager) : null;
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toString() : null;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Employee employee) throws IOException;
+    }
+}
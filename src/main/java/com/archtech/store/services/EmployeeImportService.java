@@ -0,0 +1,405 @@
+package com.archtech.store.services;
+
+import com.archtech.store.dto.EmployeeImportRow;
+import com.archtech.store.dto.ImportReport;
+import com.archtech.store.dto.ImportReport.RowResult;
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Streams employees from an NDJSON or CSV body into the database.
+ *
+ * Rows are parsed one line at a time and written in chunks using JDBC batch
+ * inserts. Each chunk is one write on the GroupCommitWriter, so it commits in
+ * order with every other write and rolls back on its own; with the writer
+ * disabled it runs in its own transaction. Manager references are resolved
+ * against a map of everything seen so far in the import, plus one lookup query
+ * per chunk for existing employees, made inside the write. Every imported row
+ * is a new leaf whose manager is already known (existing, or an earlier row),
+ * so an import can never close a cycle in the hierarchy. The org chart and the
+ * department registry are updated from the chunk's afterCommit action.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportService.class);
+    // Ids per closure table insert, under SQLite's bind parameter limit
+    private static final int CLOSURE_BATCH_SIZE = 500;
+
+    private final EmployeeRepository repository;
+    private final OrgChartIndex orgChart;
+    private final DepartmentRegistry departments;
+    private final ReportCountService reportCounts;
+    private final GroupCommitWriter writer;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public EmployeeImportService(EmployeeRepository repository,
+                                 OrgChartIndex orgChart,
+                                 DepartmentRegistry departments,
+                                 ReportCountService reportCounts,
+                                 GroupCommitWriter writer,
+                                 EntityManager entityManager,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${store.import.chunk-size:500}") int chunkSize) {
+        this.repository = repository;
+        this.orgChart = orgChart;
+        this.departments = departments;
+        this.reportCounts = reportCounts;
+        this.writer = writer;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports one JSON object per line
+     */
+    public ImportReport importNdjson(InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return importLines(reader, 0, line -> false, this::parseJson);
+    }
+
+    /**
+     * Imports CSV with a header line naming the columns
+     * (name, email, dept, salary, isManager, managerId, managerEmail)
+     */
+    public ImportReport importCsv(InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String header = reader.readLine();
+        if (header == null) {
+            return new ImportReport();
+        }
+
+        List<String> columns = CsvSupport.parseLine(header.replace("\uFEFF", "")).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        return importLines(reader, 1, CsvSupport::togglesQuote, (lineNumber, line) -> parseCsv(columns, lineNumber, line));
+    }
+
+    /**
+     * Parses and imports one record at a time. A line for which togglesQuote
+     * holds opens a field that spans line breaks: the record takes the following
+     * lines, joined with \n, up to the one that closes it, and is reported at
+     * the line it starts on.
+     */
+    private ImportReport importLines(BufferedReader reader, int linesRead, Predicate<String> togglesQuote,
+                                     RowParser parser) throws IOException {
+        ImportRun run = new ImportRun();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+        int lineNumber = linesRead;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            int firstLine = lineNumber;
+            if (togglesQuote.test(line)) {
+                StringBuilder record = new StringBuilder(line);
+                boolean open = true;
+                String next;
+                while (open && (next = reader.readLine()) != null) {
+                    lineNumber++;
+                    record.append('\n').append(next);
+                    open = !togglesQuote.test(next);
+                }
+                line = record.toString();
+            }
+            chunk.add(parser.parse(firstLine, line));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, run);
+        }
+
+        log.info("Employee import finished: {} rows, {} created, {} failed",
+                run.report.getTotal(), run.report.getCreated(), run.report.getFailed());
+        return run.report;
+    }
+
+    private void importChunk(List<ParsedRow> chunk, ImportRun run) {
+        RowResult[] results = new RowResult[chunk.size()];
+
+        // Reject unparseable and invalid rows up front
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow parsed = chunk.get(i);
+            String error = parsed.error() != null ? parsed.error() : validate(parsed.row());
+            if (error != null) {
+                results[i] = RowResult.failed(parsed.line(), parsed.email(), error);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> emails = candidates.stream()
+                .map(i -> chunk.get(i).row().getEmail())
+                .collect(Collectors.toSet());
+
+        Map<String, ManagerRef> created = new HashMap<>();
+        List<Employee> persisted = new ArrayList<>();
+        try {
+            // Joins the writer's group transaction; opens the chunk's own when the writer is disabled
+            writer.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                // The writer may run the chunk again after a doomed attempt
+                created.clear();
+                persisted.clear();
+                candidates.forEach(i -> results[i] = null);
+
+                // One query for emails already taken, one for managers not seen yet in this import
+                Set<String> takenEmails = emails.isEmpty() ? Set.of() : new HashSet<>(repository.findExistingEmails(emails));
+                run.lookupManagers(chunk, candidates, repository);
+
+                // Bulk rows are not hot; keep them from evicting the second-level cache,
+                // without changing it for the other writes in the group
+                Session session = entityManager.unwrap(Session.class);
+                CacheMode cacheMode = session.getCacheMode();
+                session.setCacheMode(CacheMode.IGNORE);
+                try {
+                    persistChunk(chunk, candidates, run, takenEmails, results, created, persisted);
+                } finally {
+                    session.setCacheMode(cacheMode);
+                }
+
+                // Committed rows become visible to the org chart and the department registry
+                List<ManagerRef> refs = List.copyOf(created.values());
+                List<Employee> rows = List.copyOf(persisted);
+                writer.afterCommit(() -> {
+                    refs.forEach(ref -> orgChart.setManager(ref.id(), ref.managerId()));
+                    rows.forEach(employee -> departments.add(employee.getDept(), employee.getSalary()));
+                });
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Employee import chunk rolled back", e);
+            created.clear();
+            for (int i : candidates) {
+                if (results[i] == null || results[i].getStatus() == ImportReport.RowStatus.CREATED) {
+                    ParsedRow parsed = chunk.get(i);
+                    results[i] = RowResult.failed(parsed.line(), parsed.email(),
+                            "Chunk rolled back: " + e.getMessage());
+                }
+            }
+        }
+
+        // Committed rows become visible to later chunks
+        created.forEach(run::remember);
+
+        for (RowResult result : results) {
+            run.report.add(result);
+        }
+    }
+
+    private void persistChunk(List<ParsedRow> chunk, List<Integer> candidates, ImportRun run, Set<String> takenEmails,
+                              RowResult[] results, Map<String, ManagerRef> created, List<Employee> persisted) {
+        // New direct reports per manager id
+        Map<Long, Integer> newReports = new HashMap<>();
+
+        for (int i : candidates) {
+            ParsedRow parsed = chunk.get(i);
+            EmployeeImportRow row = parsed.row();
+
+            String email = row.getEmail();
+            if (takenEmails.contains(email) || run.byEmail.containsKey(email) || created.containsKey(email)) {
+                results[i] = RowResult.failed(parsed.line(), email, "Email is already in use");
+                continue;
+            }
+
+            ManagerRef manager = null;
+            if (row.getManagerEmail() != null) {
+                manager = created.getOrDefault(row.getManagerEmail(), run.byEmail.get(row.getManagerEmail()));
+                if (manager == null) {
+                    results[i] = RowResult.failed(parsed.line(), email,
+                            "Manager not found with email: " + row.getManagerEmail());
+                    continue;
+                }
+            } else if (row.getManagerId() != null) {
+                manager = run.byId.get(row.getManagerId());
+                if (manager == null) {
+                    results[i] = RowResult.failed(parsed.line(), email,
+                            "Employee not found with id: " + row.getManagerId());
+                    continue;
+                }
+            }
+
+            if (manager != null && !manager.isManager()) {
+                results[i] = RowResult.failed(parsed.line(), email, "Invalid manager assignment: Employee "
+                        + manager.id() + " is not designated as a manager (isManager=false)");
+                continue;
+            }
+
+            Employee employee = row.toEntity();
+            if (manager != null) {
+                employee.setManager(entityManager.getReference(Employee.class, manager.id()));
+                newReports.merge(manager.id(), 1, Integer::sum);
+            }
+            entityManager.persist(employee);
+            persisted.add(employee);
+
+            created.put(email, new ManagerRef(employee.getId(), employee.getIsManager(),
+                    manager != null ? manager.id() : null));
+            results[i] = RowResult.created(parsed.line(), email, employee.getId());
+        }
+
+        // Send the JDBC batch, so the managers' chains can be walked through the new rows,
+        // then count each new leaf once for its manager and everyone above
+        entityManager.flush();
+        reportCounts.addReports(newReports, newReports);
+        List<Long> ids = persisted.stream().map(Employee::getId).toList();
+        for (int from = 0; from < ids.size(); from += CLOSURE_BATCH_SIZE) {
+            repository.addToClosure(ids.subList(from, Math.min(from + CLOSURE_BATCH_SIZE, ids.size())));
+        }
+
+        // Send the counter updates and drop the chunk from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String validate(EmployeeImportRow row) {
+        Set<ConstraintViolation<EmployeeImportRow>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private ParsedRow parseJson(int lineNumber, String line) {
+        try {
+            return ParsedRow.of(lineNumber, objectMapper.readValue(line, EmployeeImportRow.class));
+        } catch (JsonProcessingException e) {
+            return ParsedRow.error(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ParsedRow parseCsv(List<String> columns, int lineNumber, String line) {
+        try {
+            List<String> values = CsvSupport.parseLine(line);
+            EmployeeImportRow row = new EmployeeImportRow();
+
+            for (int c = 0; c < columns.size() && c < values.size(); c++) {
+                String value = values.get(c).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                switch (columns.get(c)) {
+                    case "name" -> row.setName(value);
+                    case "email" -> row.setEmail(value);
+                    case "dept" -> row.setDept(value);
+                    case "salary" -> row.setSalary(Double.valueOf(value));
+                    case "ismanager" -> row.setIsManager(Boolean.valueOf(value));
+                    case "managerid" -> row.setManagerId(Long.valueOf(value));
+                    case "manageremail" -> row.setManagerEmail(value);
+                    default -> { } // unknown columns are ignored
+                }
+            }
+            return ParsedRow.of(lineNumber, row);
+        } catch (IllegalArgumentException e) {
+            return ParsedRow.error(lineNumber, "Malformed CSV: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ParsedRow parse(int lineNumber, String line);
+    }
+
+    private record ParsedRow(int line, EmployeeImportRow row, String error) {
+        static ParsedRow of(int line, EmployeeImportRow row) {
+            return new ParsedRow(line, row, null);
+        }
+
+        static ParsedRow error(int line, String error) {
+            return new ParsedRow(line, null, error);
+        }
+
+        String email() {
+            return row != null ? row.getEmail() : null;
+        }
+    }
+
+    private record ManagerRef(Long id, boolean isManager, Long managerId) {}
+
+    /**
+     * State of one import request: the report so far and every employee the
+     * import knows about, by email and by id
+     */
+    private static class ImportRun {
+        private final ImportReport report = new ImportReport();
+        private final Map<String, ManagerRef> byEmail = new HashMap<>();
+        private final Map<Long, ManagerRef> byId = new HashMap<>();
+
+        void remember(String email, ManagerRef ref) {
+            byEmail.put(email, ref);
+            byId.put(ref.id(), ref);
+        }
+
+        // Loads existing employees referenced as managers by this chunk, in a single query
+        void lookupManagers(List<ParsedRow> chunk, List<Integer> candidates, EmployeeRepository repository) {
+            Set<String> emails = new HashSet<>();
+            Set<Long> ids = new HashSet<>();
+            for (int i : candidates) {
+                EmployeeImportRow row = chunk.get(i).row();
+                if (row.getManagerEmail() != null) {
+                    if (!byEmail.containsKey(row.getManagerEmail())) {
+                        emails.add(row.getManagerEmail());
+                    }
+                } else if (row.getManagerId() != null && !byId.containsKey(row.getManagerId())) {
+                    ids.add(row.getManagerId());
+                }
+            }
+
+            if (emails.isEmpty() && ids.isEmpty()) {
+                return;
+            }
+
+            for (Object[] found : repository.findManagerRefs(emails, ids)) {
+                Long id = (Long) found[0];
+                remember((String) found[1], new ManagerRef(id, (Boolean) found[2], null));
+            }
+        }
+    }
+}
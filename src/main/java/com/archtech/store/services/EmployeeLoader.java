@@ -0,0 +1,252 @@
+package com.archtech.store.services;
+
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Loads employees by id in batches, with their managers.
+ *
+ * loadAll resolves many ids with one statement for the employees that are
+ * not in the second-level cache and one for their managers that aren't
+ * either. load coalesces concurrent single-id lookups the way a DataLoader
+ * does. Cache hits are answered on the caller's thread. Misses are queued
+ * for one loader thread, which drains whatever has queued up, loads it with
+ * loadAll and hands each caller its employee. Lookups that arrive while a
+ * batch is loading go into the next one, so batches grow with the load and
+ * an idle loader adds no delay.
+ *
+ * Each caller is charged with the statements of the batch that served it,
+ * and waits at most store.employees.loader.timeout for it. Returned
+ * employees are detached, with their manager initialized.
+ */
+@Service
+public class EmployeeLoader implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeLoader.class);
+
+    private final EmployeeRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread loaderThread;
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public EmployeeLoader(EmployeeRepository repository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${store.employees.loader.enabled:true}") boolean enabled,
+                          @Value("${store.employees.loader.max-batch-size:500}") int maxBatchSize,
+                          @Value("${store.employees.loader.timeout:10s}") Duration timeout) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = enabled;
+        // Ids are bound one parameter each; stay under SQLite's bind limit
+        this.maxBatchSize = Math.clamp(maxBatchSize, 1, 500);
+        this.timeout = timeout;
+
+        FunctionCounter.builder("store.employee.loader.batches", batches, LongAdder::sum)
+                .description("Batches the employee loader loaded for coalesced single-id lookups")
+                .register(meterRegistry);
+        FunctionCounter.builder("store.employee.loader.loads", loads, LongAdder::sum)
+                .description("Single-id lookups answered by the employee loader's batches")
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.loaderThread = new Thread(this::drain, "employee-loader");
+            this.loaderThread.setDaemon(true);
+            this.loaderThread.start();
+        } else {
+            this.loaderThread = null;
+        }
+    }
+
+    /**
+     * One employee by id, batched with whatever other lookups are waiting
+     */
+    public Optional<Employee> load(Long id) {
+        // Inside a transaction the caller must see its own changes; the loader's session would not
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return repository.findById(id);
+        }
+        // A cached employee needs no batch; loadAll still initializes its manager
+        if (!running || entityManager.getEntityManagerFactory().getCache().contains(Employee.class, id)) {
+            return loadNow(id);
+        }
+
+        Pending pending = new Pending(id);
+        queue.add(pending);
+        // destroy may have stopped the loader thread between the check and the add
+        if (!running && queue.remove(pending)) {
+            return loadNow(id);
+        }
+
+        Loaded loaded;
+        try {
+            loaded = pending.future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new IllegalStateException("Employee " + id + " was not loaded within " + timeout, e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null) {
+            counter.charge(loaded.queries());
+        }
+        return loaded.employee();
+    }
+
+    /**
+     * Employees by id, keyed in the order of the ids; ids with no employee are left out
+     */
+    public Map<Long, Employee> loadAll(Collection<Long> ids) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty()) {
+            return Map.of();
+        }
+
+        return readOnly.execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            Map<Long, Employee> found = new LinkedHashMap<>();
+            for (Employee employee : multiLoad(session, distinct)) {
+                if (employee != null) {
+                    found.put(employee.getId(), employee);
+                }
+            }
+
+            // Managers are lazy proxies; load the ones this session hasn't seen in one go,
+            // after which initializing each proxy finds its manager already loaded
+            List<Long> managerIds = found.values().stream()
+                    .map(Employee::getManager)
+                    .filter(Objects::nonNull)
+                    .map(Employee::getId)
+                    .distinct()
+                    .toList();
+            if (!managerIds.isEmpty()) {
+                multiLoad(session, managerIds);
+            }
+            found.values().forEach(employee -> Hibernate.initialize(employee.getManager()));
+            return found;
+        });
+    }
+
+    private Optional<Employee> loadNow(Long id) {
+        return Optional.ofNullable(loadAll(List.of(id)).get(id));
+    }
+
+    // Checks the session and the second-level cache first, then one IN query for the rest;
+    // multiLoad leaves the cache alone unless a cache mode is given
+    private static List<Employee> multiLoad(Session session, List<Long> ids) {
+        return session.byMultipleIds(Employee.class)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .withBatchSize(ids.size())
+                .multiLoad(ids);
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                loadBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void loadBatch(List<Pending> batch) {
+        QueryCounter queries = new QueryCounter("employee loader", QueryCounter.UNLIMITED, false);
+        try {
+            List<Long> ids = batch.stream().map(Pending::id).collect(Collectors.toList());
+            Map<Long, Employee> found = QueryCounter.callWith(queries, () -> loadAll(ids));
+            batches.increment();
+            loads.add(batch.size());
+            batch.forEach(pending -> pending.future.complete(
+                    new Loaded(Optional.ofNullable(found.get(pending.id())), queries)));
+        } catch (RuntimeException | Error e) {
+            log.warn("Employee batch load of {} id(s) failed", batch.size(), e);
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (loaderThread != null) {
+            loaderThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        // Anything still queued would otherwise wait out its timeout
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Employee loader is shut down"));
+        }
+    }
+
+    private record Pending(Long id, CompletableFuture<Loaded> future) {
+        Pending(Long id) {
+            this(id, new CompletableFuture<>());
+        }
+    }
+
+    private record Loaded(Optional<Employee> employee, QueryCounter queries) {
+    }
+}
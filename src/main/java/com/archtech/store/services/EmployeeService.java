@@ -1,36 +1,78 @@
 package com.archtech.store.services;
 
+import com.archtech.store.dto.CursorPage;
+import com.archtech.store.dto.DepartmentStats;
+import com.archtech.store.dto.EmployeeCursor;
+import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.dto.ReportingChainEntry;
+import com.archtech.store.dto.SubtreeEntry;
 import com.archtech.store.exception.EmployeeNotFoundException;
 import com.archtech.store.model.*;
 import com.archtech.store.repository.*;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class EmployeeService {
+    private static final int ID_BATCH_SIZE = 500;
+
     private final EmployeeRepository repository;
     private final EmployeeValidationService validationService;
-
-    public EmployeeService(EmployeeRepository repository, EmployeeValidationService validationService) {
+    private final OrgChartIndex orgChart;
+    private final DepartmentRegistry departments;
+    private final GroupCommitWriter writer;
+    private final ReportCountService reportCounts;
+    private final EmployeeLoader loader;
+    private final ObservationRegistry observations;
+
+    public EmployeeService(EmployeeRepository repository, EmployeeValidationService validationService,
+                           OrgChartIndex orgChart, DepartmentRegistry departments, GroupCommitWriter writer,
+                           ReportCountService reportCounts, EmployeeLoader loader, ObservationRegistry observations) {
         this.repository = repository;
         this.validationService = validationService;
+        this.orgChart = orgChart;
+        this.departments = departments;
+        this.writer = writer;
+        this.reportCounts = reportCounts;
+        this.loader = loader;
+        this.observations = observations;
     }
 
     public List<Employee> getAllEmployees() {
         return this.repository.findAll();
     }
 
-    public List<Employee> getAllManagers() {
-        return this.repository.findAllManagers();
+    public List<EmployeeResponse> getAllManagers() {
+        return this.repository.findAllManagerResponses();
     }
 
     public Optional<Employee> getEmployee(Long id) {
-        return this.repository.findById(id);
+        return this.loader.load(id);
+    }
+
+    /**
+     * Employees by id with their managers loaded, keyed in the order of the ids;
+     * ids with no employee are left out
+     */
+    public Map<Long, Employee> getEmployees(Collection<Long> ids) {
+        return this.loader.loadAll(ids);
     }
 
     public Optional<Employee> getEmployee(String email) {
@@ -38,20 +80,34 @@ public class EmployeeService {
     }
 
     public Employee createEmployee(Employee employee) {
-        // Validate manager assignment if provided
-        if (employee.getManager() != null) {
-            // For new employees, we need to save first to get an ID, then validate
-            // Or we can validate with a temporary ID = null
-            validationService.validateManagerAssignment(
-                0L, // New employee doesn't have ID yet
-                employee.getManager().getId()
-            );
-        }
-        return this.repository.save(employee);
+        return writer.execute(() -> {
+            // Validate manager assignment if provided
+            if (employee.getManager() != null) {
+                // For new employees, we need to save first to get an ID, then validate
+                // Or we can validate with a temporary ID = null
+                validationService.validateManagerAssignment(
+                    0L, // New employee doesn't have ID yet
+                    employee.getManager().getId()
+                );
+            }
+            Employee created = this.repository.save(employee);
+            reportCounts.addReports(managerIdOf(created), 1, 1);
+            repository.addToClosure(List.of(created.getId()));
+
+            Long id = created.getId();
+            Long managerId = managerIdOf(created);
+            String dept = created.getDept();
+            Double salary = created.getSalary();
+            writer.afterCommit(() -> {
+                orgChart.setManager(id, managerId);
+                departments.add(dept, salary);
+            });
+            return loaded(created);
+        });
     }
 
     public Employee updateEmployee(Long id, Employee updatedData) {
-        return repository.findById(id)
+        return writer.execute(() -> repository.findById(id)
                 .map(existing -> {
                     // Validate manager assignment if it's being changed
                     if (updatedData.getManager() != null) {
@@ -65,6 +121,10 @@ public class EmployeeService {
                         }
                     }
 
+                    String oldDept = existing.getDept();
+                    Double oldSalary = existing.getSalary();
+                    Long oldManagerId = managerIdOf(existing);
+
                     // Apply updates
                     existing.setEmployeeName(updatedData.getEmployeeName());
                     existing.setEmail(updatedData.getEmail());
@@ -72,145 +132,323 @@ public class EmployeeService {
                     existing.setSalary(updatedData.getSalary());
                     existing.setManager(updatedData.getManager());
                     existing.setIsManager(updatedData.getIsManager());
-
-                    return repository.save(existing);
+                    moveReports(existing, oldManagerId);
+                    Employee saved = repository.save(existing);
+
+                    Long managerId = managerIdOf(saved);
+                    String dept = saved.getDept();
+                    Double salary = saved.getSalary();
+                    writer.afterCommit(() -> {
+                        orgChart.setManager(id, managerId);
+                        departments.update(oldDept, oldSalary, dept, salary);
+                    });
+                    return loaded(saved);
                 })
-                .orElseThrow(() -> new EmployeeNotFoundException(id));
+                .orElseThrow(() -> new EmployeeNotFoundException(id)));
     }
 
+    /**
+     * Deletes a manager and hands all of its direct reports to the least-loaded
+     * remaining manager, as a single transaction of set-based statements
+     */
     public void deleteManager(Long managerId) {
-        Employee manager = this.repository.findById(managerId)
-                .orElseThrow(() -> new EmployeeNotFoundException(managerId));
-
-        List<Employee> subs = this.repository.findSubordinates(managerId);
-
-        if (!subs.isEmpty()) {
-            Employee replacement = this.findReplacementManager(managerId);
+        serviceCall("deleteManager").observe(() -> removeManager(managerId));
+    }
 
-            for (Employee s : subs) {
-                s.setManager(replacement);
-                repository.save(s);
+    private void removeManager(Long managerId) {
+        writer.run(() -> {
+            Employee manager = this.repository.findById(managerId)
+                    .orElseThrow(() -> new EmployeeNotFoundException(managerId));
+
+            Long replacementId = this.findReplacementManager(managerId);
+            Employee replacement = replacementId != null ? repository.getReferenceById(replacementId) : null;
+
+            // The manager leaves its own manager's team with its whole subtree, then
+            // the subtree, less the manager, joins the replacement's
+            int span = manager.getSpan();
+            reportCounts.addReports(managerIdOf(manager), -1, -(1 + span));
+            int moved = repository.reassignSubordinates(managerId, replacement, LocalDateTime.now());
+            reportCounts.addReports(replacementId, moved, span);
+
+            List<Long> reportIds = repository.findDirectReportIds(managerId);
+            repository.detachSubtree(managerId);
+            repository.removeFromClosure(managerId);
+            if (replacementId != null && !reportIds.isEmpty()) {
+                repository.attachSubtrees(reportIds, replacementId);
             }
-        }
-
-        repository.deleteById(managerId);
+            repository.deleteById(managerId);
+
+            String dept = manager.getDept();
+            Double salary = manager.getSalary();
+            writer.afterCommit(() -> {
+                orgChart.reassignReports(managerId, replacementId);
+                orgChart.remove(managerId);
+                departments.remove(dept, salary);
+            });
+        });
     }
 
-    private Employee findReplacementManager(Long removedManagerId) {
-        // Find all managers except the one being removed
-        List<Employee> managers = repository.findAllManagers().stream()
-                .filter(m -> !m.getId().equals(removedManagerId))
-                .toList();
-
-        if (managers.isEmpty())
-            return null;
-
-        return managers.stream()
-                .min((a, b) -> Integer.compare(a.getNumSubordinates(), b.getNumSubordinates()))
+    private Long findReplacementManager(Long removedManagerId) {
+        // Least-loaded manager first; skip anyone inside the removed manager's own
+        // subtree, who would otherwise end up reporting to themselves
+        return repository.findManagerIdsByLoad(removedManagerId).stream()
+                .filter(candidateId -> !validationService.wouldCreateCycle(removedManagerId, candidateId))
+                .findFirst()
                 .orElse(null);
     }
 
     public void deleteEmployeeById(Long id) {
-        Employee employee = repository.findById(id)
-                .orElseThrow(() -> new EmployeeNotFoundException(id));
+        writer.run(() -> {
+            Employee existing = repository.findById(id)
+                    .orElseThrow(() -> new EmployeeNotFoundException(id));
 
-        if (employee.getIsManager()) {
-            throw new IllegalStateException("Cannot delete a manager. Use deleteManager endpoint or demote first.");
-        }
+            if (existing.getIsManager()) {
+                throw new IllegalStateException("Cannot delete a manager. Use deleteManager endpoint or demote first.");
+            }
 
-        repository.deleteById(id);
+            reportCounts.addReports(managerIdOf(existing), -1, -(1 + existing.getSpan()));
+            repository.detachSubtree(id);
+            repository.removeFromClosure(id);
+            repository.deleteById(id);
+
+            String dept = existing.getDept();
+            Double salary = existing.getSalary();
+            writer.afterCommit(() -> {
+                orgChart.remove(id);
+                departments.remove(dept, salary);
+            });
+        });
     }
 
     // Department operations
-    public List<Employee> getEmployeesByDepartment(String dept) {
-        return repository.findByDept(dept);
+    public List<EmployeeResponse> getEmployeesByDepartment(String dept) {
+        return repository.findResponsesByDept(dept);
     }
 
+    // Served from the in-memory registry, no query
     public List<String> getAllDepartments() {
-        return repository.findAllDepartments();
+        return departments.getDepartments();
+    }
+
+    public List<DepartmentStats> getDepartmentStats() {
+        return departments.getStats();
     }
 
     // Search operations
-    public List<Employee> searchEmployees(String name, String dept, 
-                                          Double minSalary, Double maxSalary, 
-                                          Boolean isManager) {
-        return repository.searchEmployees(name, dept, minSalary, maxSalary, isManager);
+    public List<EmployeeResponse> searchEmployees(String name, String dept, 
+                                                  Double minSalary, Double maxSalary, 
+                                                  Boolean isManager) {
+        if (name == null || name.isBlank()) {
+            return repository.searchEmployees(dept, minSalary, maxSalary, isManager);
+        }
+
+        String match = toMatchExpression(name);
+        if (match == null) {
+            return List.of();
+        }
+        return findResponsesInOrder(toIds(repository.searchIds(match, dept, minSalary, maxSalary, isManager)));
     }
 
     public List<Employee> searchByNameOrEmail(String searchTerm) {
-        return repository.searchByNameOrEmail(searchTerm);
+        String match = toMatchExpression(searchTerm);
+        if (match == null) {
+            return List.of();
+        }
+
+        List<Long> ids = toIds(repository.searchIdsByNameOrEmail(match, Pageable.unpaged()).getContent());
+        Map<Long, Employee> byId = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Ranked, paginated full-text search over employee name and email.
+     * Every word of the query must match the start of a word in either field.
+     */
+    public Page<EmployeeResponse> searchByText(String query, Pageable pageable) {
+        String match = toMatchExpression(query);
+        if (match == null) {
+            return Page.empty(pageable);
+        }
+
+        Page<Number> ids = repository.searchIdsByNameOrEmail(match, pageable);
+        return new PageImpl<>(findResponsesInOrder(toIds(ids.getContent())), pageable, ids.getTotalElements());
+    }
+
+    // Turns free text into an FTS5 query: each word becomes a quoted prefix term, all required
+    private static String toMatchExpression(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        String match = Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> "\"" + word + "\"*")
+                .collect(Collectors.joining(" "));
+        return match.isEmpty() ? null : match;
+    }
+
+    private static List<Long> toIds(List<Number> ids) {
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    // Loads responses for ranked ids, preserving the ranking and staying under SQLite's bind limit
+    private List<EmployeeResponse> findResponsesInOrder(List<Long> ids) {
+        Map<Long, EmployeeResponse> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+            repository.findResponsesByIds(batch).forEach(r -> byId.put(r.getId(), r));
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
     // Subordinate operations
-    public List<Employee> getSubordinates(Long managerId) {
-        return repository.findSubordinates(managerId);
+    public List<EmployeeResponse> getSubordinates(Long managerId) {
+        return repository.findSubordinateResponses(managerId);
+    }
+
+    /**
+     * Everyone below a manager, down to maxDepth levels (null for all), nearest
+     * levels first. Answered from the closure table in one query plus the count.
+     */
+    public Page<SubtreeEntry> getSubtree(Long managerId, Integer maxDepth, Pageable pageable) {
+        Page<SubtreeEntry> subtree = repository.findSubtree(managerId,
+                maxDepth != null ? maxDepth : Integer.MAX_VALUE, pageable);
+        // An empty page may also mean there is no such manager
+        if (subtree.isEmpty() && !repository.existsById(managerId)) {
+            throw new EmployeeNotFoundException(managerId);
+        }
+        return subtree;
     }
 
     // Promotion and demotion
     public Employee promoteToManager(Long employeeId) {
-        validationService.validatePromotion(employeeId);
-        
-        Employee employee = repository.findById(employeeId)
-                .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
-        
-        employee.setIsManager(true);
-        return repository.save(employee);
+        return writer.execute(() -> {
+            validationService.validatePromotion(employeeId);
+
+            Employee employee = repository.findById(employeeId)
+                    .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
+
+            employee.setIsManager(true);
+            return loaded(repository.save(employee));
+        });
     }
 
     public Employee demoteFromManager(Long employeeId) {
-        validationService.validateDemotion(employeeId);
-        
-        Employee employee = repository.findById(employeeId)
-                .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
-        
-        // Check if manager has subordinates
-        List<Employee> subordinates = repository.findSubordinates(employeeId);
-        if (!subordinates.isEmpty()) {
-            throw new IllegalStateException(
-                "Cannot demote manager with subordinates. Reassign subordinates first.");
-        }
-        
-        employee.setIsManager(false);
-        return repository.save(employee);
+        return writer.execute(() -> {
+            validationService.validateDemotion(employeeId);
+
+            Employee employee = repository.findById(employeeId)
+                    .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
+
+            // Check if manager has subordinates
+            List<Employee> subordinates = repository.findSubordinates(employeeId);
+            if (!subordinates.isEmpty()) {
+                throw new IllegalStateException(
+                    "Cannot demote manager with subordinates. Reassign subordinates first.");
+            }
+
+            employee.setIsManager(false);
+            return loaded(repository.save(employee));
+        });
     }
 
     // Transfer employee to different manager
     public Employee transferEmployee(Long employeeId, Long newManagerId) {
-        Employee employee = repository.findById(employeeId)
-                .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
-        
-        // Validate the new manager assignment
-        if (newManagerId != null) {
-            validationService.validateManagerAssignment(employeeId, newManagerId);
-            Employee newManager = repository.findById(newManagerId)
-                    .orElseThrow(() -> new EmployeeNotFoundException(newManagerId));
-            employee.setManager(newManager);
-        } else {
-            employee.setManager(null);
-        }
-        
-        return repository.save(employee);
-    }
-
-    // Get reporting hierarchy (chain of command)
-    public List<Employee> getReportingHierarchy(Long employeeId) {
-        Employee employee = repository.findById(employeeId)
-                .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
-        
-        List<Employee> hierarchy = new ArrayList<>();
-        hierarchy.add(employee);
-        
-        Employee current = employee.getManager();
-        while (current != null) {
-            hierarchy.add(current);
-            current = current.getManager();
+        return serviceCall("transferEmployee").observe(() -> transfer(employeeId, newManagerId));
+    }
+
+    // Timed as store.service, tagged with the method and the error it threw, if any
+    private Observation serviceCall(String method) {
+        return Observation.createNotStarted("store.service", observations)
+                .lowCardinalityKeyValue("class", EmployeeService.class.getSimpleName())
+                .lowCardinalityKeyValue("method", method);
+    }
+
+    private Employee transfer(Long employeeId, Long newManagerId) {
+        return writer.execute(() -> {
+            Employee employee = repository.findById(employeeId)
+                    .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
+            Long oldManagerId = managerIdOf(employee);
+
+            // Validate the new manager assignment
+            if (newManagerId != null) {
+                validationService.validateManagerAssignment(employeeId, newManagerId);
+                Employee newManager = repository.findById(newManagerId)
+                        .orElseThrow(() -> new EmployeeNotFoundException(newManagerId));
+                employee.setManager(newManager);
+            } else {
+                employee.setManager(null);
+            }
+            moveReports(employee, oldManagerId);
+
+            writer.afterCommit(() -> orgChart.setManager(employeeId, newManagerId));
+            return loaded(repository.save(employee));
+        });
+    }
+
+    // Get reporting hierarchy (chain of command), resolved in a single query
+    public List<ReportingChainEntry> getReportingHierarchy(Long employeeId) {
+        List<ReportingChainEntry> hierarchy = repository.findReportingChain(employeeId);
+        if (hierarchy.isEmpty()) {
+            throw new EmployeeNotFoundException(employeeId);
         }
-        
         return hierarchy;
     }
 
     // Pagination support
-    public Page<Employee> getAllEmployeesPaged(Pageable pageable) {
-        return repository.findAll(pageable);
+    public Page<EmployeeResponse> getAllEmployeesPaged(Pageable pageable) {
+        return repository.findAllResponses(pageable);
+    }
+
+    /**
+     * Keyset pagination: returns the page following the given cursor token
+     * (or the first page when it is empty), ordered by the cursor's sort key
+     */
+    public CursorPage<EmployeeResponse> getEmployeesAfter(String after, String sort, int size) {
+        EmployeeCursor cursor = (after == null || after.isEmpty())
+                ? EmployeeCursor.start(sort)
+                : EmployeeCursor.decode(after);
+
+        // Fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(size + 1);
+        List<EmployeeResponse> rows = switch (cursor.getSortKey()) {
+            case ID -> repository.findResponsesAfterId(cursor.getLastId(), limit);
+            case NAME -> repository.findResponsesAfterName(cursor.getLastName(), cursor.getLastId(), limit);
+        };
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<EmployeeResponse> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursor.after(content.get(size - 1)).encode());
+    }
+
+    // Moves an employee, along with everyone below it, from its old manager's chain to its
+    // new one's: the report counters on both chains and the closure rows linking them
+    private void moveReports(Employee employee, Long oldManagerId) {
+        Long newManagerId = managerIdOf(employee);
+        if (!Objects.equals(oldManagerId, newManagerId)) {
+            int moved = 1 + employee.getSpan();
+            reportCounts.addReports(oldManagerId, -1, -moved);
+            reportCounts.addReports(newManagerId, 1, moved);
+
+            repository.detachSubtree(employee.getId());
+            if (newManagerId != null) {
+                repository.attachSubtrees(List.of(employee.getId()), newManagerId);
+            }
+        }
+    }
+
+    // Writes run in the writer's session, which is closed before the caller
+    // renders the result; load what EmployeeResponse reads while it is open
+    private static Employee loaded(Employee employee) {
+        Hibernate.initialize(employee.getManager());
+        return employee;
+    }
+
+    private static Long managerIdOf(Employee employee) {
+        return employee.getManager() != null ? employee.getManager().getId() : null;
     }
 }
@@ -7,16 +7,18 @@ import com.archtech.store.model.Employee;
 import com.archtech.store.repository.EmployeeRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
-
 @Service
 public class EmployeeValidationService {
     
     private final EmployeeRepository repository;
+    private final OrgChartIndex orgChart;
+    private final GroupCommitWriter writer;
 
-    public EmployeeValidationService(EmployeeRepository repository) {
+    public EmployeeValidationService(EmployeeRepository repository, OrgChartIndex orgChart,
+                                     GroupCommitWriter writer) {
         this.repository = repository;
+        this.orgChart = orgChart;
+        this.writer = writer;
     }
 
     /**
@@ -54,33 +56,16 @@ public class EmployeeValidationService {
     }
 
     /**
-     * Checks if assigning managerId to employeeId would create a cycle
+     * Checks if assigning managerId to employeeId would create a cycle.
+     * The ancestor walk runs against the in-memory org chart, not the database,
+     * unless earlier writes in the same transaction have moved employees the
+     * org chart does not know about yet. The closure table has them already.
      */
-    private boolean wouldCreateCycle(Long employeeId, Long managerId) {
-        Set<Long> visited = new HashSet<>();
-        Long currentId = managerId;
-
-        while (currentId != null) {
-            if (currentId.equals(employeeId)) {
-                return true; // Cycle detected
-            }
-
-            if (visited.contains(currentId)) {
-                // Already visited this node, no cycle to the target employee
-                break;
-            }
-
-            visited.add(currentId);
-
-            Employee current = repository.findById(currentId).orElse(null);
-            if (current == null || current.getManager() == null) {
-                break;
-            }
-
-            currentId = current.getManager().getId();
+    public boolean wouldCreateCycle(Long employeeId, Long managerId) {
+        if (writer.hasPendingCommitActions()) {
+            return repository.isInChainOf(employeeId, managerId);
         }
-
-        return false;
+        return orgChart.wouldCreateCycle(employeeId, managerId);
     }
 
     /**
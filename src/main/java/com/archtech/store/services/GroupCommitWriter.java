@@ -0,0 +1,478 @@
+package com.archtech.store.services;
+
+import com.archtech.store.dto.GroupCommitStatistics;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Serializes database writes through one thread that commits them in groups.
+ *
+ * SQLite runs one write transaction at a time, so concurrent writers only
+ * take turns on the lock. Instead, callers hand their write to a queue. The
+ * writer thread drains whatever has queued up, runs it in a single
+ * transaction and completes every caller's future after the commit.
+ *
+ * Each write runs under its own savepoint and is flushed before the next one
+ * starts. A write that throws is rolled back to its savepoint and fails alone;
+ * the rest of the group still commits. A database error dooms the whole
+ * transaction, though, so then the group is rolled back and run again without
+ * the failed write. Writes must therefore only touch the database and be safe
+ * to run twice. In-memory state that mirrors the database is updated through
+ * {@link #afterCommit}: the writer thread runs those actions after the commit,
+ * in commit order, before any caller's future completes, so the next write
+ * checks itself against state that includes every write before it.
+ *
+ * A write submitted from inside an existing transaction joins that
+ * transaction on the caller's thread instead of queueing behind it.
+ *
+ * Callers wait at most store.writes.group-commit.timeout, both for room in a
+ * full queue and, in execute, for the commit. A write whose caller gave up
+ * before it started is skipped.
+ */
+@Service
+public class GroupCommitWriter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final int queueCapacity;
+    private final Duration timeout;
+    private final BlockingQueue<Write<?>> queue;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    // Rows inserted by the current attempt, and rows the running write has
+    // inserted, updated or deleted; only touched on the writer thread
+    private final List<Inserted> inserted = new ArrayList<>();
+    private final List<Changed> changed = new ArrayList<>();
+    // The write running on the writer thread, and whether the current attempt
+    // has registered afterCommit actions that have not run yet
+    private Write<?> current;
+    private boolean actionsPending;
+
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final LongAccumulator largestBatch = new LongAccumulator(Math::max, 0);
+
+    public GroupCommitWriter(TransactionTemplate transactionTemplate,
+                             EntityManager entityManager,
+                             @Value("${store.writes.group-commit.enabled:true}") boolean enabled,
+                             @Value("${store.writes.group-commit.max-batch-size:100}") int maxBatchSize,
+                             @Value("${store.writes.group-commit.queue-capacity:10000}") int queueCapacity,
+                             @Value("${store.writes.group-commit.timeout:30s}") Duration timeout) {
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        if (enabled) {
+            ChangeTracker tracker = new ChangeTracker();
+            EventListenerRegistry listeners = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getEventEngine().getListenerRegistry();
+            listeners.appendListeners(EventType.POST_INSERT, tracker);
+            listeners.appendListeners(EventType.POST_UPDATE, tracker);
+            listeners.appendListeners(EventType.POST_DELETE, tracker);
+            this.writerThread = new Thread(this::drain, "sqlite-writer");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        } else {
+            this.writerThread = null;
+        }
+    }
+
+    /**
+     * Queues the write; the future completes once its group has committed
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        if (!enabled || Thread.currentThread() == writerThread
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Writer is shut down"));
+        }
+
+        Write<T> write = new Write<>(work);
+        try {
+            // A full queue holds the caller back rather than failing the write, up to the timeout
+            if (!queue.offer(write, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Write queue stayed full for " + timeout));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Interrupted while queueing", e));
+        }
+        // destroy may have stopped the writer thread between the check and the offer
+        if (!running && queue.remove(write)) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Writer is shut down"));
+        }
+        return write.future;
+    }
+
+    /**
+     * Queues the write and waits for it, at most the timeout. Exceptions thrown
+     * by the write reach the caller unwrapped, as if it had run on the caller's
+     * thread.
+     */
+    public <T> T execute(Supplier<T> work) {
+        CompletableFuture<T> future = submit(work);
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Skipped if it has not started yet; one already running may still commit
+            future.cancel(false);
+            throw new IllegalStateException("Write was not committed within " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for a write", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action once the calling write has committed. On the writer
+     * thread it runs after the group's commit, in commit order, and is dropped
+     * if the write fails. A write that ran on the caller's thread runs it after
+     * the caller's transaction commits, or straight away outside of one.
+     */
+    public void afterCommit(Runnable action) {
+        if (Thread.currentThread() == writerThread && current != null) {
+            current.afterCommit.add(action);
+            actionsPending = true;
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!TransactionSynchronizationManager.hasResource(this)) {
+                TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(GroupCommitWriter.this);
+                    }
+                });
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Whether the current transaction holds writes whose afterCommit actions
+     * have not run yet. In-memory state then lags behind what the transaction
+     * reads, and checks must go to the database instead.
+     */
+    public boolean hasPendingCommitActions() {
+        if (Thread.currentThread() == writerThread) {
+            return actionsPending;
+        }
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    public GroupCommitStatistics getStatistics() {
+        long groups = batches.sum();
+        long writes = committed.sum() + failed.sum();
+        return new GroupCommitStatistics(
+                enabled,
+                queue.size(),
+                queueCapacity,
+                maxBatchSize,
+                committed.sum(),
+                failed.sum(),
+                groups,
+                groups == 0 ? 0.0 : (double) writes / groups,
+                largestBatch.get(),
+                groups == 0 ? 0.0 : commitNanos.sum() / 1_000_000.0 / groups);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            // Lets the writer finish what is already queued
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        // Anything still queued would otherwise never complete
+        Write<?> write;
+        while ((write = queue.poll()) != null) {
+            write.future.completeExceptionally(new RejectedExecutionException("Writer is shut down"));
+        }
+    }
+
+    private void drain() {
+        List<Write<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Never reached for write failures; keeps the thread alive on anything unexpected
+                log.error("Write group failed outside its transaction", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Write<?>> batch) {
+        long startedAt = System.nanoTime();
+        List<Changed> evict = List.of();
+
+        // A caller that stopped waiting before its write started does not get it run
+        for (Write<?> write : batch) {
+            if (write.future.isCancelled()) {
+                write.fail(new CancellationException("Caller stopped waiting for the write"));
+            }
+        }
+        List<Write<?>> pending = batch.stream().filter(write -> write.failure == null).toList();
+        while (!pending.isEmpty()) {
+            List<Write<?>> group = pending;
+            try {
+                Attempt attempt = transactionTemplate.execute(status -> attempt(group, status));
+                if (attempt.doomed()) {
+                    // Everything rolled back; run the group again without the write that doomed it
+                    pending = group.stream().filter(write -> write.failure == null).toList();
+                } else {
+                    evict = attempt.evict();
+                    pending = List.of();
+                }
+            } catch (RuntimeException | Error e) {
+                // The commit itself failed, or a write threw an Error: nothing in the group was written
+                group.forEach(write -> write.fail(e));
+                pending = List.of();
+            }
+        }
+
+        if (!evict.isEmpty()) {
+            // A write rolled back to its savepoint may still have queued cache updates
+            // for the commit; drop the rows it wrote, which the commit has now cached
+            Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getCache();
+            evict.forEach(row -> cache.evictEntityData(row.entityName(), row.id()));
+        }
+
+        batches.increment();
+        largestBatch.accumulate(batch.size());
+        commitNanos.add(System.nanoTime() - startedAt);
+        // All of the group's actions run before any caller sees its result
+        for (Write<?> write : batch) {
+            if (write.failure == null) {
+                write.runAfterCommit();
+            }
+        }
+        for (Write<?> write : batch) {
+            if (write.failure != null) {
+                failed.increment();
+            } else {
+                committed.increment();
+            }
+            write.complete();
+        }
+    }
+
+    private Attempt attempt(List<Write<?>> group, TransactionStatus status) {
+        // JpaTransactionManager offers no savepoints with Hibernate; set them on the connection directly
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        inserted.clear();
+        actionsPending = false;
+
+        List<Changed> evict = new ArrayList<>();
+        for (Write<?> write : group) {
+            Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+            changed.clear();
+            // The write's statements count towards the budget of the request that queued it
+            QueryCounter previous = QueryCounter.bind(write.queries);
+            // A write run again after a doomed attempt registers its actions again
+            write.afterCommit.clear();
+            current = write;
+            try {
+                write.run();
+                entityManager.flush();
+                session.doWork(connection -> connection.releaseSavepoint(savepoint));
+            } catch (RuntimeException e) {
+                write.fail(e);
+                write.afterCommit.clear();
+                // Hibernate marks the transaction rollback-only on any persistence error
+                if (status.isRollbackOnly()) {
+                    status.setRollbackOnly();
+                    // Identifier rollback: the next attempt persists these entities as new again
+                    inserted.forEach(row -> row.persister().resetIdentifier(row.entity(), row.id(), null, session));
+                    return new Attempt(true, List.of());
+                }
+                session.doWork(connection -> connection.rollback(savepoint));
+                // Drop whatever the failed write left in the persistence context
+                entityManager.clear();
+                evict.addAll(changed);
+            } finally {
+                current = null;
+                QueryCounter.bind(previous);
+            }
+        }
+        return new Attempt(false, evict);
+    }
+
+    private record Attempt(boolean doomed, List<Changed> evict) {
+    }
+
+    private record Inserted(Object entity, Object id, EntityPersister persister) {
+    }
+
+    private record Changed(String entityName, Object id) {
+    }
+
+    // Rows written through the persistence context; bulk and native statements
+    // evict their tables from the cache on their own
+    private final class ChangeTracker
+            implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (Thread.currentThread() == writerThread) {
+                inserted.add(new Inserted(event.getEntity(), event.getId(), event.getPersister()));
+                changed(event.getPersister(), event.getId());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (Thread.currentThread() == writerThread) {
+                changed(event.getPersister(), event.getId());
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (Thread.currentThread() == writerThread) {
+                changed(event.getPersister(), event.getId());
+            }
+        }
+
+        private void changed(EntityPersister persister, Object id) {
+            if (persister.canWriteToCache()) {
+                changed.add(new Changed(persister.getEntityName(), id));
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+
+    private static final class Write<T> {
+        private final Supplier<T> work;
+        private final QueryCounter queries = QueryCounter.current();
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private T result;
+        private Throwable failure;
+
+        Write(Supplier<T> work) {
+            this.work = work;
+        }
+
+        void run() {
+            result = work.get();
+        }
+
+        void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        void runAfterCommit() {
+            for (Runnable action : afterCommit) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    // The write is committed either way; the caller still gets its result
+                    log.error("After-commit action failed", e);
+                }
+            }
+        }
+
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
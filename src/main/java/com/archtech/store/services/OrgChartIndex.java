@@ -0,0 +1,173 @@
+package com.archtech.store.services;
+
+import com.archtech.store.repository.EmployeeRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of the management tree, stored as a primitive array
+ * indexed by employee id that holds each employee's manager id.
+ * Employee ids are generated densely, so the array stays compact.
+ *
+ * Loaded once from the database on startup, before the web server accepts
+ * requests, and kept current by the write paths in EmployeeService, so
+ * cycle checks never hit SQLite.
+ */
+@Component
+public class OrgChartIndex implements SmartInitializingSingleton {
+
+    private static final long NO_MANAGER = 0L;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final EmployeeRepository repository;
+    private final GroupCommitWriter writer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // managerIds[employeeId] = manager id, or NO_MANAGER
+    private long[] managerIds = new long[INITIAL_CAPACITY];
+
+    public OrgChartIndex(EmployeeRepository repository, GroupCommitWriter writer) {
+        this.repository = repository;
+        this.writer = writer;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the whole index from the employee table. The links are read
+     * as a write and installed as its afterCommit action, so the snapshot
+     * takes its place in commit order: updates from earlier writes are in
+     * it, and those from later writes are applied on top of it.
+     */
+    public void rebuild() {
+        writer.run(() -> {
+            long[] rebuilt = new long[INITIAL_CAPACITY];
+            for (Object[] link : repository.findAllManagerLinks()) {
+                int employeeId = toIndex((Long) link[0]);
+                if (employeeId >= rebuilt.length) {
+                    rebuilt = Arrays.copyOf(rebuilt, newCapacity(rebuilt.length, employeeId));
+                }
+                rebuilt[employeeId] = (Long) link[1];
+            }
+
+            long[] loaded = rebuilt;
+            writer.afterCommit(() -> {
+                lock.writeLock().lock();
+                try {
+                    this.managerIds = loaded;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        });
+    }
+
+    /**
+     * Records (or clears, when managerId is null) the manager of an employee
+     */
+    public void setManager(Long employeeId, Long managerId) {
+        int index = toIndex(employeeId);
+
+        lock.writeLock().lock();
+        try {
+            if (index >= managerIds.length) {
+                managerIds = Arrays.copyOf(managerIds, newCapacity(managerIds.length, index));
+            }
+            managerIds[index] = managerId != null ? managerId : NO_MANAGER;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves every direct report of one manager to another (or to no manager)
+     */
+    public void reassignReports(Long fromManagerId, Long toManagerId) {
+        long from = fromManagerId;
+        long to = toManagerId != null ? toManagerId : NO_MANAGER;
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < managerIds.length; i++) {
+                if (managerIds[i] == from) {
+                    managerIds[i] = to;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets an employee that has been deleted
+     */
+    public void remove(Long employeeId) {
+        int index = toIndex(employeeId);
+
+        lock.writeLock().lock();
+        try {
+            if (index < managerIds.length) {
+                managerIds[index] = NO_MANAGER;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the manager id of an employee, or null if it has none
+     */
+    public Long getManagerId(Long employeeId) {
+        int index = toIndex(employeeId);
+
+        lock.readLock().lock();
+        try {
+            long managerId = index < managerIds.length ? managerIds[index] : NO_MANAGER;
+            return managerId != NO_MANAGER ? managerId : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if assigning managerId to employeeId would create a cycle,
+     * i.e. whether employeeId is managerId itself or one of its ancestors
+     */
+    public boolean wouldCreateCycle(Long employeeId, Long managerId) {
+        long target = employeeId;
+        long current = managerId;
+
+        lock.readLock().lock();
+        try {
+            // A chain can never be longer than the number of slots, so this
+            // bound also stops the walk on corrupt (already cyclic) data
+            for (int steps = 0; steps <= managerIds.length && current != NO_MANAGER; steps++) {
+                if (current == target) {
+                    return true;
+                }
+                current = current < managerIds.length ? managerIds[(int) current] : NO_MANAGER;
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int toIndex(Long employeeId) {
+        if (employeeId == null || employeeId < 0) {
+            throw new IllegalArgumentException("Invalid employee id: " + employeeId);
+        }
+        return Math.toIntExact(employeeId);
+    }
+
+    private static int newCapacity(int current, int requiredIndex) {
+        return Math.max(current * 2, requiredIndex + 1);
+    }
+}
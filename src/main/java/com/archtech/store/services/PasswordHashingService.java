@@ -0,0 +1,175 @@
+package com.archtech.store.services;
+
+import com.archtech.store.dto.PasswordHashingStatistics;
+import com.archtech.store.dto.PasswordHashingStatistics.Timing;
+import com.archtech.store.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a small dedicated pool, so a burst
+ * of logins cannot occupy the request threads that serve everything else.
+ *
+ * The pool has a fixed number of threads and a bounded queue. When the queue
+ * is full the returned future fails immediately with
+ * PasswordHashingOverloadedException (503 + Retry-After) instead of queueing
+ * work that would time out anyway.
+ *
+ * Hash time per operation, queue wait and pool load are also published as
+ * store.password.hashing.* meters.
+ */
+@Service
+public class PasswordHashingService implements DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final int retryAfterSeconds;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${store.security.hashing.pool-size:0}") int poolSize,
+                                  @Value("${store.security.hashing.queue-capacity:100}") int queueCapacity,
+                                  @Value("${store.security.hashing.retry-after-seconds:1}") int retryAfterSeconds,
+                                  MeterRegistry meterRegistry) {
+        // Default: half the cores, leaving the rest for request handling
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.passwordEncoder = passwordEncoder;
+        this.queueCapacity = queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        String hashTime = "Time spent hashing or verifying one password";
+        this.encodeTimer = Timer.builder("store.password.hashing").description(hashTime)
+                .tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("store.password.hashing").description(hashTime)
+                .tag("operation", "matches").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("store.password.hashing.queue")
+                .description("Time a hashing task waited for a thread").register(meterRegistry);
+        Gauge.builder("store.password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Hashing tasks waiting for a thread").register(meterRegistry);
+        Gauge.builder("store.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads busy").register(meterRegistry);
+        FunctionCounter.builder("store.password.hashing.rejected", rejected, LongAdder::sum)
+                .description("Hashing tasks turned away by a full queue").register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * True when the hash was written with another algorithm or a lower cost than
+     * the encoder's current target. Only parses the hash; runs on the caller.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordHashingStatistics getStatistics() {
+        long done = completed.sum();
+        return new PasswordHashingStatistics(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                submitted.sum(),
+                done,
+                rejected.sum(),
+                new Timing(averageMillis(queueWaitNanos.sum(), done), toMillis(maxQueueWaitNanos.get())),
+                new Timing(averageMillis(hashNanos.sum(), done), toMillis(maxHashNanos.get())));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work, Timer hashTimer) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                record(queueWaitNanos, maxQueueWaitNanos, startedAt - queuedAt);
+                queueWaitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                T result = null;
+                RuntimeException failure = null;
+                try {
+                    result = work.get();
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+
+                // Count the work before completing, so callers never see stale statistics
+                long hashedFor = System.nanoTime() - startedAt;
+                record(hashNanos, maxHashNanos, hashedFor);
+                hashTimer.record(hashedFor, TimeUnit.NANOSECONDS);
+                completed.increment();
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(result);
+                }
+            });
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            future.completeExceptionally(new PasswordHashingOverloadedException(retryAfterSeconds));
+        }
+        return future;
+    }
+
+    private static void record(LongAdder total, LongAccumulator max, long nanos) {
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    private static double averageMillis(long totalNanos, long count) {
+        return count == 0 ? 0.0 : toMillis(totalNanos) / count;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -11,9 +11,11 @@ import java.util.Optional;
 public class ProductService {
 
     private final ProductRepository repository;
+    private final GroupCommitWriter writer;
 
-    public ProductService(ProductRepository repository) {
+    public ProductService(ProductRepository repository, GroupCommitWriter writer) {
         this.repository = repository;
+        this.writer = writer;
     }
 
     public List<Product> getAllProducts() {
@@ -25,16 +27,16 @@ public class ProductService {
     }
 
     public Product createProduct(Product product) {
-        return this.repository.save(product);
+        return this.writer.execute(() -> this.repository.save(product));
     }
 
     public Product updateProduct(long id, Product product) {
         product.setId(id);
-        return this.repository.save(product);
+        return this.writer.execute(() -> this.repository.save(product));
     }
 
     public void deleteProduct(long id) {
-        this.repository.deleteById(id);
+        this.writer.run(() -> this.repository.deleteById(id));
     }
 
 }
\ No newline at end of file
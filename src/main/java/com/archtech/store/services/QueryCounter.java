@@ -0,0 +1,153 @@
+package com.archtech.store.services;
+
+import com.archtech.store.exception.QueryBudgetExceededException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Statements and JDBC time spent on behalf of one request (or any other unit
+ * of work that binds a counter to its thread).
+ *
+ * QueryCountingStatementInspector counts every statement Hibernate prepares
+ * on a thread with a counter bound, and JdbcTimingSessionListener adds the
+ * time each one took to execute. GroupCommitWriter binds the caller's counter
+ * while it runs that caller's write, so queued writes are charged to the
+ * request that made them. EmployeeLoader charges a coalesced read to every
+ * request it served.
+ *
+ * With a budget set and enforcement on, the statement that goes over the
+ * budget fails with QueryBudgetExceededException before it reaches the
+ * database.
+ */
+public final class QueryCounter {
+
+    public static final int UNLIMITED = -1;
+
+    // Distinct statements tracked for repeat detection; a request past this is over budget anyway
+    private static final int MAX_DISTINCT_STATEMENTS = 1000;
+
+    private static final ThreadLocal<QueryCounter> current = new ThreadLocal<>();
+
+    private final boolean enforce;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final LongAdder jdbcNanos = new LongAdder();
+    private final ConcurrentMap<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+    private volatile String name;
+    private volatile int budget;
+
+    public QueryCounter(String name, int budget, boolean enforce) {
+        this.name = name;
+        this.budget = budget;
+        this.enforce = enforce;
+    }
+
+    /**
+     * The counter bound to this thread, or null
+     */
+    public static QueryCounter current() {
+        return current.get();
+    }
+
+    /**
+     * Binds the counter (null unbinds) and returns the one it replaced
+     */
+    public static QueryCounter bind(QueryCounter counter) {
+        QueryCounter previous = current.get();
+        if (counter == null) {
+            current.remove();
+        } else {
+            current.set(counter);
+        }
+        return previous;
+    }
+
+    /**
+     * Runs the work with the counter bound, then restores whatever was bound before
+     */
+    public static <T> T callWith(QueryCounter counter, Supplier<T> work) {
+        QueryCounter previous = bind(counter);
+        try {
+            return work.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    /**
+     * Renames the unit of work and replaces its budget, e.g. once the route is known
+     */
+    public void limit(String name, int budget) {
+        this.name = name;
+        this.budget = budget;
+    }
+
+    public void statement(String sql) {
+        int count = statements.incrementAndGet();
+        if (executions.size() < MAX_DISTINCT_STATEMENTS || executions.containsKey(sql)) {
+            executions.computeIfAbsent(sql, key -> new AtomicInteger()).incrementAndGet();
+        }
+        if (enforce && isOverBudget(count)) {
+            throw new QueryBudgetExceededException(name, budget, sql);
+        }
+    }
+
+    public void jdbcTime(long nanos) {
+        jdbcNanos.add(nanos);
+    }
+
+    /**
+     * Adds everything another counter recorded to this one, for statements
+     * sent on another thread on behalf of several units of work at once
+     */
+    public void charge(QueryCounter shared) {
+        shared.executions.forEach((sql, times) -> {
+            for (int i = 0; i < times.get(); i++) {
+                statement(sql);
+            }
+        });
+        jdbcTime(shared.jdbcNanos.sum());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos.sum() / 1_000_000.0;
+    }
+
+    public boolean isOverBudget() {
+        return isOverBudget(statements.get());
+    }
+
+    /**
+     * Statements sent at least the given number of times, most frequent first:
+     * the signature of an N+1, where one lazy association is loaded per row
+     */
+    public Map<String, Integer> getRepeatedStatements(int atLeast) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.entrySet().stream()
+                .filter(entry -> entry.getValue().get() >= atLeast)
+                .sorted((a, b) -> Integer.compare(b.getValue().get(), a.getValue().get()))
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue().get()));
+        return repeated;
+    }
+
+    private boolean isOverBudget(int count) {
+        return budget != UNLIMITED && count > budget;
+    }
+}
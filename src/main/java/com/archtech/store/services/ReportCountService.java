@@ -0,0 +1,142 @@
+package com.archtech.store.services;
+
+import com.archtech.store.repository.EmployeeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains the materialized direct report and span counters on Employee.
+ *
+ * Write paths call addReports inside their own transaction, so the counters
+ * change in the same commit as the manager_id values they count. Anything
+ * that changes manager_id without going through the services would leave
+ * them drifting, so a background job recomputes every counter from manager_id
+ * each store.employees.report-counts.reconcile-interval (0 disables it) and
+ * corrects the rows that differ. It runs on the GroupCommitWriter, so it never
+ * interleaves with another write.
+ */
+@Service
+public class ReportCountService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportCountService.class);
+    private static final int ID_BATCH_SIZE = 500;
+
+    private final EmployeeRepository repository;
+    private final GroupCommitWriter writer;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder corrected = new LongAdder();
+
+    public ReportCountService(EmployeeRepository repository,
+                              GroupCommitWriter writer,
+                              MeterRegistry meterRegistry,
+                              @Value("${store.employees.report-counts.reconcile-interval:1h}") Duration interval) {
+        this.repository = repository;
+        this.writer = writer;
+        this.interval = interval;
+        this.scheduler = interval.isPositive()
+                ? Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("report-count-reconciler").daemon().factory())
+                : null;
+
+        FunctionCounter.builder("store.report.count.corrections", corrected, LongAdder::sum)
+                .description("Employees whose report counters were corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::reconcileQuietly,
+                    interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds reports under a manager: directReports to its own direct count and
+     * span to the span of the manager and everyone above it. Negative values
+     * remove reports. Must run inside the transaction of the write that moves
+     * them; a null manager (top of the org chart) has nothing to update.
+     */
+    public void addReports(Long managerId, int directReports, int span) {
+        if (managerId == null || (directReports == 0 && span == 0)) {
+            return;
+        }
+        addReports(Map.of(managerId, directReports), Map.of(managerId, span));
+    }
+
+    /**
+     * The same for many managers at once, keyed by manager id: one chain query
+     * per manager whose span changes, then one load per batch of rows to update
+     */
+    public void addReports(Map<Long, Integer> directReports, Map<Long, Integer> span) {
+        Map<Long, Integer> spans = new HashMap<>();
+        span.forEach((managerId, delta) -> {
+            if (delta != 0) {
+                repository.findChainIds(managerId)
+                        .forEach(id -> spans.merge(id.longValue(), delta, Integer::sum));
+            }
+        });
+
+        Set<Long> ids = new LinkedHashSet<>(directReports.keySet());
+        ids.addAll(spans.keySet());
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = all.subList(from, Math.min(from + ID_BATCH_SIZE, all.size()));
+            // Managed entities, so the second-level cache sees each change instead of losing the region
+            repository.findAllById(batch).forEach(employee -> employee.addReports(
+                    directReports.getOrDefault(employee.getId(), 0),
+                    spans.getOrDefault(employee.getId(), 0)));
+        }
+    }
+
+    /**
+     * Recomputes every employee's counters from manager_id and corrects the
+     * ones that drifted. Returns the number of employees corrected.
+     */
+    public int reconcile() {
+        // The count only reads, so a clean table never invalidates the cached employees
+        int rows = writer.execute(() ->
+                repository.countReportCountDrift() == 0 ? 0 : repository.reconcileReportCounts());
+        corrected.add(rows);
+        if (rows > 0) {
+            log.warn("Corrected drifted report counters on {} employee(s)", rows);
+        }
+        return rows;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run tries again
+            log.error("Report counter reconciliation failed", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
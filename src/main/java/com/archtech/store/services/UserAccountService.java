@@ -3,21 +3,55 @@ package com.archtech.store.services;
 import com.archtech.store.model.*;
 import com.archtech.store.repository.*;
 import com.archtech.store.dto.*;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Account management. Every operation that hashes or verifies a password
+ * returns a CompletableFuture: the BCrypt work runs on PasswordHashingService's
+ * pool and the write that follows it is handed to the GroupCommitWriter from
+ * the application task executor, so neither holds a request thread nor a
+ * hashing thread longer than needed. The name filter and the credential
+ * cache are updated from the write's afterCommit actions, in commit order.
+ *
+ * A successful signin whose stored hash is below the current algorithm or cost
+ * target is re-hashed in the background, so stored hashes follow the target.
+ */
 @Service
 public class UserAccountService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserAccountService.class);
+
     private final UserAccountRepository repository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService hashing;
+    private final CredentialCache credentialCache;
+    private final AccountNameFilter nameFilter;
+    private final GroupCommitWriter writer;
+    private final Executor executor;
+    private final ObservationRegistry observations;
 
-    public UserAccountService(UserAccountRepository repository, BCryptPasswordEncoder passwordEncoder) {
+    public UserAccountService(UserAccountRepository repository, PasswordHashingService hashing,
+                              CredentialCache credentialCache, AccountNameFilter nameFilter,
+                              GroupCommitWriter writer,
+                              @Qualifier("applicationTaskExecutor") Executor executor,
+                              ObservationRegistry observations) {
         this.repository = repository;
-        this.passwordEncoder = passwordEncoder;
+        this.hashing = hashing;
+        this.credentialCache = credentialCache;
+        this.nameFilter = nameFilter;
+        this.writer = writer;
+        this.executor = executor;
+        this.observations = observations;
     }
 
     public List<UserAccount> getAllUsers() {
@@ -28,38 +62,57 @@ public class UserAccountService {
         return this.repository.findById(id);
     }
 
-    public UserAccount createUser(UserAccount user) {
+    public CompletableFuture<UserAccount> createUser(UserAccount user) {
         // Always hash the password before saving
-        user.setPassword(this.passwordEncoder.encode(user.getPassword()));
-        return this.repository.save(user);
+        return this.hashing.encode(user.getPassword())
+                .thenComposeAsync(hash -> this.writer.submit(() -> {
+                    user.setPassword(hash);
+                    return this.added(this.repository.save(user));
+                }), this.executor);
     }
 
     public UserAccount updateEmail(Long id, String email) throws RuntimeException {
-        return this.repository.findById(id)
+        return this.writer.execute(() -> this.repository.findById(id)
                 .map(user -> {
+                    String oldEmail = user.getEmail();
                     user.setEmail(email);
-                    return this.repository.save(user);
+                    UserAccount saved = this.repository.save(user);
+                    this.writer.afterCommit(() -> this.nameFilter.changeEmail(oldEmail, email));
+                    return saved;
                 })
-                .orElseThrow(() -> new RuntimeException("User not found with id " + id));
+                .orElseThrow(() -> new RuntimeException("User not found with id " + id)));
     }
 
-    public UserAccount updatePassword(Long id, String newPassword) throws RuntimeException {
-        return this.repository.findById(id)
-                .map(user -> {
-                    user.setPassword(this.passwordEncoder.encode(newPassword));
-                    return this.repository.save(user);
-                })
-                .orElseThrow(() -> new RuntimeException("User not found with id " + id));
+    public CompletableFuture<UserAccount> updatePassword(Long id, String newPassword) {
+        if (this.repository.findById(id).isEmpty()) {
+            return CompletableFuture.failedFuture(new RuntimeException("User not found with id " + id));
+        }
+
+        return this.hashing.encode(newPassword)
+                .thenComposeAsync(hash -> this.writer.submit(() -> {
+                    // Only the password column: the account may have changed while the hash was computed
+                    if (this.repository.updatePasswordHash(id, hash) == 0) {
+                        throw new RuntimeException("User not found with id " + id);
+                    }
+                    this.writer.afterCommit(() -> this.credentialCache.invalidate(id));
+                    return this.repository.findById(id).orElseThrow();
+                }), this.executor);
     }
 
     public void deleteUser(Long id) {
-        this.repository.deleteById(id);
+        this.writer.run(() -> this.repository.findById(id).ifPresent(user -> {
+            this.repository.delete(user);
+            this.writer.afterCommit(() -> {
+                this.nameFilter.remove(user.getUserName(), user.getEmail());
+                this.credentialCache.invalidate(id);
+            });
+        }));
     }
 
-    public boolean checkPassword(Long id, String rawPassword) {
+    public CompletableFuture<Boolean> checkPassword(Long id, String rawPassword) {
         return this.repository.findById(id)
-                .map(user -> this.passwordEncoder.matches(rawPassword, user.getPassword()))
-                .orElse(false);
+                .map(user -> this.verifyPassword(user, rawPassword))
+                .orElse(CompletableFuture.completedFuture(false));
     }
 
     public boolean checkEmail(Long id, String email) {
@@ -69,57 +122,149 @@ public class UserAccountService {
     }
 
     // Authentication methods
-    public UserAccount signup(SignupRequest signupRequest) {
+    public CompletableFuture<UserAccount> signup(SignupRequest signupRequest) {
         // Check if username already exists
-        if (this.repository.existsByUserName(signupRequest.getUserName())) {
-            throw new RuntimeException("Username is already taken!");
+        if (this.nameFilter.isUserNameTaken(signupRequest.getUserName())) {
+            return CompletableFuture.failedFuture(new RuntimeException("Username is already taken!"));
         }
         
         // Check if email already exists
-        if (this.repository.existsByEmail(signupRequest.getEmail())) {
-            throw new RuntimeException("Email is already in use!");
+        if (this.nameFilter.isEmailTaken(signupRequest.getEmail())) {
+            return CompletableFuture.failedFuture(new RuntimeException("Email is already in use!"));
         }
         
         // Create new user
-        UserAccount user = new UserAccount(
-            signupRequest.getName(),
-            signupRequest.getUserName(),
-            signupRequest.getEmail(),
-            this.passwordEncoder.encode(signupRequest.getPassword())
-        );
-        
-        return this.repository.save(user);
+        return this.hashing.encode(signupRequest.getPassword())
+                .thenComposeAsync(hash -> this.writer.submit(() -> this.added(this.repository.save(new UserAccount(
+                        signupRequest.getName(),
+                        signupRequest.getUserName(),
+                        signupRequest.getEmail(),
+                        hash
+                    )))), this.executor);
+    }
+
+    // Counts a new account's names in the filter once the account is committed
+    private UserAccount added(UserAccount saved) {
+        String userName = saved.getUserName();
+        String email = saved.getEmail();
+        this.writer.afterCommit(() -> this.nameFilter.add(userName, email));
+        return saved;
     }
     
-    public Optional<UserAccount> signin(SigninRequest signinRequest) {
-        // Try to find user by username first
-        Optional<UserAccount> userOpt = this.repository.findByUserName(signinRequest.getUsernameOrEmail());
-        
-        // If not found by username, try email
-        if (!userOpt.isPresent()) {
-            userOpt = this.repository.findByEmail(signinRequest.getUsernameOrEmail());
+    public CompletableFuture<Optional<UserAccount>> signin(SigninRequest signinRequest) {
+        // Timed as store.service until the password check completes, not until the request thread is released
+        Observation observation = Observation.createNotStarted("store.service", this.observations)
+                .lowCardinalityKeyValue("class", UserAccountService.class.getSimpleName())
+                .lowCardinalityKeyValue("method", "signin")
+                .start();
+        try {
+            return this.authenticate(signinRequest).whenComplete((result, failure) -> {
+                if (failure != null) {
+                    observation.error(failure instanceof CompletionException ? failure.getCause() : failure);
+                }
+                observation.stop();
+            });
+        } catch (RuntimeException e) {
+            observation.error(e);
+            observation.stop();
+            throw e;
         }
+    }
+
+    private CompletableFuture<Optional<UserAccount>> authenticate(SigninRequest signinRequest) {
+        String login = signinRequest.getUsernameOrEmail();
+
+        // One lookup by username or email; a username match wins, as before
+        List<UserAccount> candidates = this.repository.findByUserNameOrEmail(login);
+        Optional<UserAccount> userOpt = candidates.stream()
+                .filter(user -> login.equals(user.getUserName()))
+                .findFirst()
+                .or(() -> candidates.stream().findFirst());
         
         // Validate password if user found
-        if (userOpt.isPresent() && this.passwordEncoder.matches(signinRequest.getPassword(), userOpt.get().getPassword())) {
-            return userOpt;
+        if (userOpt.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
         }
-        
-        return Optional.empty();
+        UserAccount user = userOpt.get();
+        return this.verifyPassword(user, signinRequest.getPassword())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        return Optional.empty();
+                    }
+                    this.upgradeHashIfNeeded(user, signinRequest.getPassword());
+                    return userOpt;
+                });
+    }
+
+    // Best effort and off the signin's critical path: when the pool is busy or the
+    // write fails, the old hash stays valid and the next signin tries again
+    private void upgradeHashIfNeeded(UserAccount user, String rawPassword) {
+        String oldHash = user.getPassword();
+        if (!this.hashing.needsRehash(oldHash)) {
+            return;
+        }
+
+        Long userId = user.getId();
+        this.hashing.encode(rawPassword)
+                .thenComposeAsync(newHash -> this.writer.submit(() -> {
+                    int updated = this.repository.replacePasswordHash(userId, oldHash, newHash);
+                    if (updated > 0) {
+                        this.writer.afterCommit(() -> this.credentialCache.invalidate(userId));
+                    }
+                    return updated;
+                }), this.executor)
+                .thenAccept(updated -> {
+                    if (updated > 0) {
+                        log.debug("Upgraded password hash for user {}", userId);
+                    }
+                })
+                .exceptionally(e -> {
+                    log.debug("Password hash upgrade for user {} skipped: {}", userId, e.getMessage());
+                    return null;
+                });
+    }
+
+    // BCrypt check, skipped when the same credentials were verified moments ago
+    private CompletableFuture<Boolean> verifyPassword(UserAccount user, String rawPassword) {
+        if (this.credentialCache.isVerified(user.getId(), user.getPassword(), rawPassword)) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        String hash = user.getPassword();
+        return this.hashing.matches(rawPassword, hash)
+                .thenApply(matches -> {
+                    if (matches) {
+                        this.credentialCache.markVerified(user.getId(), hash, rawPassword);
+                    }
+                    return matches;
+                });
     }
     
-    public UserAccount changePassword(Long userId, ChangePasswordRequest changePasswordRequest) {
-        UserAccount user = this.repository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found!"));
-        
-        // Check if current password matches
-        if (!this.passwordEncoder.matches(changePasswordRequest.getCurrentPassword(), user.getPassword())) {
-            throw new RuntimeException("Current password is incorrect!");
+    public CompletableFuture<UserAccount> changePassword(Long userId, ChangePasswordRequest changePasswordRequest) {
+        Optional<UserAccount> userOpt = this.repository.findById(userId);
+        if (userOpt.isEmpty()) {
+            return CompletableFuture.failedFuture(new RuntimeException("User not found!"));
         }
+
+        String checkedHash = userOpt.get().getPassword();
         
-        // Update with new password
-        user.setPassword(this.passwordEncoder.encode(changePasswordRequest.getNewPassword()));
-        return this.repository.save(user);
+        // Check if current password matches, then hash the new one
+        return this.hashing.matches(changePasswordRequest.getCurrentPassword(), checkedHash)
+                .thenCompose(matches -> {
+                    if (!matches) {
+                        throw new RuntimeException("Current password is incorrect!");
+                    }
+                    return this.hashing.encode(changePasswordRequest.getNewPassword());
+                })
+                .thenComposeAsync(hash -> this.writer.submit(() -> {
+                    // Compare-and-set on the hash that was checked: if the password changed
+                    // since, the current password given is no longer the current one
+                    if (this.repository.replacePasswordHash(userId, checkedHash, hash) == 0) {
+                        throw new RuntimeException("Current password is incorrect!");
+                    }
+                    this.writer.afterCommit(() -> this.credentialCache.invalidate(userId));
+                    return this.repository.findById(userId).orElseThrow();
+                }), this.executor);
     }
     
     public Optional<UserAccount> findByUsername(String username) {
@@ -131,10 +276,10 @@ public class UserAccountService {
     }
     
     public boolean existsByUsername(String username) {
-        return this.repository.existsByUserName(username);
+        return this.nameFilter.isUserNameTaken(username);
     }
     
     public boolean existsByEmail(String email) {
-        return this.repository.existsByEmail(email);
+        return this.nameFilter.isEmailTaken(email);
     }
 }
@@ -0,0 +1,36 @@
+-- Tables as Hibernate created them under ddl-auto=update. IF NOT EXISTS lets
+-- databases created that way adopt the migrations without a separate baseline.
+
+CREATE TABLE IF NOT EXISTS employee (
+    id bigint not null,
+    created_date timestamp,
+    dept varchar(10),
+    email varchar(150) not null unique,
+    employee_name varchar(150) not null,
+    is_manager boolean not null,
+    salary float,
+    updated_date timestamp,
+    manager_id bigint,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS product (
+    id bigint not null,
+    description varchar(255),
+    discount float not null,
+    has_discount boolean not null,
+    name varchar(255),
+    price float not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS user_account (
+    id integer,
+    created_date timestamp,
+    email varchar(50) not null unique,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    updated_date timestamp,
+    user_name varchar(100) not null unique,
+    primary key (id)
+);
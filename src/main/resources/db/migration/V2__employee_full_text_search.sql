@@ -0,0 +1,25 @@
+-- FTS5 index over employee name and email. It is an external-content table
+-- (no copy of the text is stored) kept in sync with employee by triggers, so
+-- every write path is covered.
+
+CREATE VIRTUAL TABLE IF NOT EXISTS employee_fts USING fts5(
+    employee_name, email, content='employee', content_rowid='id', prefix='2 3'
+);
+
+CREATE TRIGGER IF NOT EXISTS employee_fts_ai AFTER INSERT ON employee BEGIN
+    INSERT INTO employee_fts(rowid, employee_name, email) VALUES (new.id, new.employee_name, new.email);
+END;
+
+CREATE TRIGGER IF NOT EXISTS employee_fts_ad AFTER DELETE ON employee BEGIN
+    INSERT INTO employee_fts(employee_fts, rowid, employee_name, email)
+    VALUES ('delete', old.id, old.employee_name, old.email);
+END;
+
+CREATE TRIGGER IF NOT EXISTS employee_fts_au AFTER UPDATE OF employee_name, email ON employee BEGIN
+    INSERT INTO employee_fts(employee_fts, rowid, employee_name, email)
+    VALUES ('delete', old.id, old.employee_name, old.email);
+    INSERT INTO employee_fts(rowid, employee_name, email) VALUES (new.id, new.employee_name, new.email);
+END;
+
+-- Index rows written before the search table existed
+INSERT INTO employee_fts(employee_fts) VALUES ('rebuild');
@@ -0,0 +1,18 @@
+-- employee.id is a bigint primary key, not a rowid alias, so an index only
+-- covers id when it lists it. email, user_name and user_account.email are
+-- already indexed through their unique constraints.
+
+-- Subordinate lookups and counts, reassignment, and the org chart's manager links
+CREATE INDEX IF NOT EXISTS idx_employee_manager_id ON employee (manager_id, id);
+
+-- Department filters, plus the per-department totals read from the index alone
+CREATE INDEX IF NOT EXISTS idx_employee_dept_salary ON employee (dept, salary);
+
+-- Manager listings
+CREATE INDEX IF NOT EXISTS idx_employee_is_manager ON employee (is_manager);
+
+-- Salary range search
+CREATE INDEX IF NOT EXISTS idx_employee_salary ON employee (salary);
+
+-- Keyset pagination by name
+CREATE INDEX IF NOT EXISTS idx_employee_name_id ON employee (employee_name, id);
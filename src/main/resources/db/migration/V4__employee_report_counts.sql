@@ -0,0 +1,23 @@
+-- Materialized org chart counters, kept current by the write paths and
+-- corrected by ReportCountService's reconciliation: direct_reports counts the
+-- employees whose manager_id is this row, span counts every direct and
+-- indirect report below it.
+ALTER TABLE employee ADD COLUMN direct_reports integer not null default 0;
+ALTER TABLE employee ADD COLUMN span integer not null default 0;
+
+-- Backfill; the depth cap stops the walk on cyclic data
+WITH RECURSIVE reports(root, id, depth) AS (
+    SELECT manager_id, id, 1 FROM employee WHERE manager_id IS NOT NULL
+    UNION ALL
+    SELECT r.root, e.id, r.depth + 1 FROM employee e JOIN reports r ON e.manager_id = r.id WHERE r.depth < 1000
+),
+counted(id, direct_reports, span) AS (
+    SELECT root, SUM(depth = 1), COUNT(*) FROM reports GROUP BY root
+)
+UPDATE employee SET direct_reports = c.direct_reports, span = c.span
+FROM counted c WHERE c.id = employee.id;
+
+-- Least-loaded manager selection reads this index in order; it also serves
+-- the manager listings, so the single-column index is no longer needed
+CREATE INDEX IF NOT EXISTS idx_employee_manager_load ON employee (is_manager, direct_reports, id);
+DROP INDEX IF EXISTS idx_employee_is_manager;
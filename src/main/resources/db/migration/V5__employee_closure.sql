@@ -0,0 +1,25 @@
+-- Closure table of the management tree: one row for every (manager, report)
+-- pair at any distance, plus a depth 0 row linking each employee to itself.
+-- EmployeeService keeps it in step with employee.manager_id.
+CREATE TABLE IF NOT EXISTS employee_closure (
+    ancestor_id bigint not null,
+    descendant_id bigint not null,
+    depth integer not null,
+    primary key (ancestor_id, descendant_id)
+);
+
+-- Subtree pages, nearest reports first, read in index order
+CREATE INDEX IF NOT EXISTS idx_employee_closure_ancestor_depth ON employee_closure (ancestor_id, depth, descendant_id);
+
+-- Everyone above an employee, for moves and deletes
+CREATE INDEX IF NOT EXISTS idx_employee_closure_descendant ON employee_closure (descendant_id, ancestor_id);
+
+-- Backfill by walking up from every employee; the depth cap stops the walk on cyclic data
+INSERT OR IGNORE INTO employee_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE up(descendant_id, ancestor_id, depth) AS (
+    SELECT id, id, 0 FROM employee
+    UNION ALL
+    SELECT u.descendant_id, e.manager_id, u.depth + 1 FROM up u
+    JOIN employee e ON e.id = u.ancestor_id WHERE e.manager_id IS NOT NULL AND u.depth < 1000
+)
+SELECT ancestor_id, descendant_id, depth FROM up;
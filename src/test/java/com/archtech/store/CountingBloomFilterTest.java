@@ -0,0 +1,68 @@
+package com.archtech.store;
+
+import com.archtech.store.services.CountingBloomFilter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void testNoFalseNegativesAndBoundedFalsePositives() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        // 1% target; allow for variance but catch a broken hash
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(10_000, filter.size());
+    }
+
+    @Test
+    void testRemoveForgetsKeyButKeepsOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("name" + i);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            filter.remove("name" + i);
+        }
+
+        for (int i = 500; i < 1_000; i++) {
+            assertTrue(filter.mightContain("name" + i));
+        }
+        long stillReported = IntStream.range(0, 500)
+                .filter(i -> filter.mightContain("name" + i)).count();
+        assertTrue(stillReported < 50, "removed keys still reported: " + stillReported);
+        assertEquals(500, filter.size());
+    }
+
+    @Test
+    void testSaturatedCountersNeverDropToZero() {
+        CountingBloomFilter filter = new CountingBloomFilter(10, 0.1);
+        for (int i = 0; i < 20; i++) {
+            filter.add("same");
+        }
+        for (int i = 0; i < 19; i++) {
+            filter.remove("same");
+        }
+
+        // Counters capped at 15 stay there, so the key is never reported absent
+        assertTrue(filter.mightContain("same"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.DepartmentStats;
+import com.archtech.store.repository.*;
+import com.archtech.store.services.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DepartmentRegistryTest {
+
+    private EmployeeRepository repository;
+    private DepartmentRegistry departments;
+
+    @BeforeEach
+    void setup() {
+        repository = Mockito.mock(EmployeeRepository.class);
+        // Disabled writer: the rebuild runs inline
+        departments = new DepartmentRegistry(repository, new GroupCommitWriter(null, null, false, 1, 1, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testRebuildLoadsTotals() {
+        when(repository.findDepartmentTotals()).thenReturn(List.of(
+                new Object[] {"IT", 3L, 2L, 150000.0},
+                new Object[] {"HR", 1L, 0L, null}
+        ));
+
+        departments.rebuild();
+
+        assertEquals(List.of("HR", "IT"), departments.getDepartments());
+        DepartmentStats it = departments.getStats("IT");
+        assertEquals(3, it.getHeadcount());
+        assertEquals(75000.0, it.getAverageSalary());
+        assertNull(departments.getStats("HR").getAverageSalary());
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        departments.add("IT", 50000.0);
+        departments.add("IT", 70000.0);
+        departments.add("HR", null);
+
+        // Move one IT employee to Sales with a raise
+        departments.update("IT", 70000.0, "Sales", 80000.0);
+
+        assertEquals(List.of("HR", "IT", "Sales"), departments.getDepartments());
+        assertEquals(1, departments.getStats("IT").getHeadcount());
+        assertEquals(50000.0, departments.getStats("IT").getTotalSalary());
+        assertEquals(80000.0, departments.getStats("Sales").getAverageSalary());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testDepartmentDisappearsWhenEmpty() {
+        departments.add("IT", 50000.0);
+        List<String> before = departments.getDepartments();
+
+        departments.remove("IT", 50000.0);
+
+        assertTrue(departments.getDepartments().isEmpty());
+        assertNull(departments.getStats("IT"));
+        assertEquals(List.of("IT"), before); // earlier snapshots are unaffected
+    }
+}
@@ -0,0 +1,187 @@
+package com.archtech.store;
+
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.archtech.store.services.EmployeeLoader;
+import com.archtech.store.services.EmployeeService;
+import com.archtech.store.services.QueryCounter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.archtech.store.config.QueryBudgetFilter.QUERY_COUNT_HEADER;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmployeeBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        // Cached entities would not reach the database
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testBatchIsKeyedByIdAndReportsMissingIds() throws Exception {
+        Employee manager = create("batch-manager", null, true);
+        Employee a = create("batch-a", manager, false);
+        Employee b = create("batch-b", manager, false);
+        Employee c = create("batch-c", null, false);
+        entityManagerFactory.getCache().evictAll();
+        String ids = a.getId() + "," + c.getId() + ",-5," + b.getId() + "," + a.getId();
+
+        // One statement for the employees, one for their manager
+        mockMvc.perform(get("/api/v1/employees/batch").param("ids", ids))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QUERY_COUNT_HEADER, "2"))
+                .andExpect(jsonPath("$.employees.length()").value(3))
+                .andExpect(jsonPath("$.employees.['" + a.getId() + "'].manager.name")
+                        .value(manager.getEmployeeName()))
+                .andExpect(jsonPath("$.employees.['" + c.getId() + "'].manager").doesNotExist())
+                .andExpect(jsonPath("$.missing").value(contains(-5)));
+
+        // Everyone is in the second-level cache now
+        mockMvc.perform(post("/api/v1/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + b.getId() + "," + a.getId() + "]"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QUERY_COUNT_HEADER, "0"))
+                .andExpect(jsonPath("$.employees.['" + b.getId() + "'].employeeName").value(b.getEmployeeName()))
+                .andExpect(jsonPath("$.missing").isEmpty());
+    }
+
+    @Test
+    void testBatchRejectsNoIdsAndTooManyIds() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/batch"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+
+        String tooMany = LongStream.rangeClosed(1, 101).mapToObj(Long::toString)
+                .collect(Collectors.joining(",", "[", "]"));
+        mockMvc.perform(post("/api/v1/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON).content(tooMany))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testConcurrentLookupsShareQueries() throws Exception {
+        int callers = 32;
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            employees.add(create("loaded-" + i, null, false));
+        }
+        entityManagerFactory.getCache().evictAll();
+        double batchesBefore = counted("store.employee.loader.batches");
+        double loadsBefore = counted("store.employee.loader.loads");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> charged = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (Employee employee : employees) {
+                charged.add(executor.submit(() -> {
+                    QueryCounter counter = new QueryCounter("lookup", QueryCounter.UNLIMITED, false);
+                    assertTrue(start.await(10, TimeUnit.SECONDS));
+                    Optional<Employee> loaded = QueryCounter.callWith(counter,
+                            () -> employeeService.getEmployee(employee.getId()));
+                    assertEquals(employee.getEmployeeName(), loaded.orElseThrow().getEmployeeName());
+                    return counter.getStatements();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> statements : charged) {
+                // Each caller is charged with the batch that served it
+                assertEquals(1, statements.get(10, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(loadsBefore + callers, counted("store.employee.loader.loads"));
+        // Lookups that queued while a batch was loading went out together in the next one
+        assertTrue(counted("store.employee.loader.batches") - batchesBefore < callers);
+    }
+
+    @Test
+    void testCachedAndPostShutdownLookupsComeWithTheirManager() throws Exception {
+        Employee manager = create("cached-manager", null, true);
+        Employee report = create("cached-report", manager, false);
+        entityManagerFactory.getCache().evictAll();
+        // Batched once, so both are cached for the second lookup
+        employeeService.getEmployee(report.getId()).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(Employee.class, report.getId()));
+
+        // No session stays open outside a request; the manager must already be loaded
+        assertEquals(manager.getEmployeeName(),
+                employeeService.getEmployee(report.getId()).orElseThrow().getManager().getEmployeeName());
+
+        EmployeeLoader stopped = new EmployeeLoader(employeeRepository, entityManager, transactionManager,
+                new SimpleMeterRegistry(), true, 10, Duration.ofSeconds(5));
+        stopped.destroy();
+        entityManagerFactory.getCache().evictAll();
+        assertEquals(manager.getEmployeeName(),
+                stopped.load(report.getId()).orElseThrow().getManager().getEmployeeName());
+    }
+
+    private Employee create(String name, Employee manager, boolean isManager) {
+        String unique = name + System.nanoTime();
+        return employeeService.createEmployee(
+                new Employee("Batch " + unique, unique + "@example.com", "IT", 50000.0, manager, isManager));
+    }
+
+    private double counted(String name) {
+        return meterRegistry.get(name).functionCounter().count();
+    }
+}
@@ -1,7 +1,11 @@
 package com.archtech.store;
 
+import com.archtech.store.dto.CursorPage;
 import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.dto.ImportReport;
 import com.archtech.store.model.Employee;
+import com.archtech.store.services.EmployeeExportService;
+import com.archtech.store.services.EmployeeImportService;
 import com.archtech.store.services.EmployeeService;
 import com.archtech.store.controller.EmployeeController;
 
@@ -11,7 +15,6 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -22,12 +25,17 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 import java.util.Optional;
 
+import static com.archtech.store.config.QueryBudgetFilter.QUERY_COUNT_HEADER;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+/**
+ * Services are mocks here, so X-Query-Count must report no statements; the
+ * counts against a real database are checked in QueryBudgetTest.
+ */
 @WebMvcTest(EmployeeController.class)
 class EmployeeControllerTest {
 
@@ -37,20 +45,75 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeService service;
 
+    @MockBean
+    private EmployeeImportService importService;
+
+    @MockBean
+    private EmployeeExportService exportService;
+
     @Test
     @WithMockUser
     void testGetAllEmployees() throws Exception {
-        List<Employee> employees = List.of(
-                new Employee("Alice", "alice@example.com", "HR", 50000.0, null, false),
-                new Employee("Bob", "bob@example.com", "IT", 70000.0, null, true)
+        List<EmployeeResponse> employees = List.of(
+                new EmployeeResponse(new Employee("Alice", "alice@example.com", "HR", 50000.0, null, false)),
+                new EmployeeResponse(new Employee("Bob", "bob@example.com", "IT", 70000.0, null, true))
         );
 
-        Page<Employee> page = new PageImpl<>(employees);
+        Page<EmployeeResponse> page = new PageImpl<>(employees);
         when(service.getAllEmployeesPaged(any(Pageable.class))).thenReturn(page);
 
         mockMvc.perform(get("/api/v1/employees"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content.length()").value(2));
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(header().string(QUERY_COUNT_HEADER, "0"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllEmployeesWithCursor() throws Exception {
+        List<EmployeeResponse> employees = List.of(
+                new EmployeeResponse(new Employee("Alice", "alice@example.com", "HR", 50000.0, null, false))
+        );
+
+        when(service.getEmployeesAfter("", "id", 1)).thenReturn(new CursorPage<>(employees, "next-token"));
+
+        mockMvc.perform(get("/api/v1/employees").param("after", "").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(service, never()).getAllEmployeesPaged(any(Pageable.class));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportCsv() throws Exception {
+        ImportReport report = new ImportReport();
+        report.add(ImportReport.RowResult.created(2, "alice@example.com", 1L));
+        report.add(ImportReport.RowResult.failed(3, "bob@example.com", "Email is already in use"));
+
+        when(importService.importCsv(any())).thenReturn(report);
+
+        mockMvc.perform(post("/api/v1/employees/import")
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content("name,email,dept,salary\nAlice,alice@example.com,HR,50000\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.rows[1].error").value("Email is already in use"));
+
+        verify(importService, never()).importNdjson(any());
+    }
+
+    @Test
+    @WithMockUser
+    void testExportRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
     }
 
     @Test
@@ -62,7 +125,8 @@ class EmployeeControllerTest {
 
         mockMvc.perform(get("/api/v1/employees/id/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.employeeName").value("Alice"));
+                .andExpect(jsonPath("$.employeeName").value("Alice"))
+                .andExpect(header().string(QUERY_COUNT_HEADER, "0"));
     }
 
     @Test
@@ -71,7 +135,8 @@ class EmployeeControllerTest {
         when(service.getEmployee(99L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/v1/employees/id/99"))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(QUERY_COUNT_HEADER, "0"));
     }
 
     @Test
@@ -96,7 +161,8 @@ class EmployeeControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(jsonBody))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.employeeName").value("Charlie"));
+                .andExpect(jsonPath("$.employeeName").value("Charlie"))
+                .andExpect(header().string(QUERY_COUNT_HEADER, "0"));
     }
 
     @Test
@@ -121,6 +187,7 @@ class EmployeeControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(jsonBody))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.employeeName").value("Dan"));
+                .andExpect(jsonPath("$.employeeName").value("Dan"))
+                .andExpect(header().string(QUERY_COUNT_HEADER, "0"));
     }
 }
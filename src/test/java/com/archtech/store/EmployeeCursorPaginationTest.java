@@ -0,0 +1,110 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.CursorPage;
+import com.archtech.store.dto.EmployeeCursor;
+import com.archtech.store.dto.EmployeeCursor.SortKey;
+import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.exception.InvalidCursorException;
+import com.archtech.store.model.Employee;
+import com.archtech.store.services.EmployeeService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination over real rows. Each test starts from a cursor placed
+ * just before the rows it creates, so rows left by other tests don't matter.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmployeeCursorPaginationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void testPagesByIdUntilTheLastPage() {
+        List<Employee> created = List.of(create("keyset-1"), create("keyset-2"), create("keyset-3"),
+                create("keyset-4"), create("keyset-5"));
+        String start = new EmployeeCursor(SortKey.ID, "", created.get(0).getId() - 1).encode();
+
+        CursorPage<EmployeeResponse> first = employeeService.getEmployeesAfter(start, "id", 2);
+        assertEquals(ids(created.get(0), created.get(1)), ids(first));
+        assertTrue(first.isHasNext());
+
+        CursorPage<EmployeeResponse> second = employeeService.getEmployeesAfter(first.getNextCursor(), "id", 2);
+        assertEquals(ids(created.get(2), created.get(3)), ids(second));
+
+        // The newest rows, so nothing follows the last one
+        CursorPage<EmployeeResponse> last = employeeService.getEmployeesAfter(second.getNextCursor(), "id", 2);
+        assertEquals(ids(created.get(4)), ids(last));
+        assertFalse(last.isHasNext());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void testPagesByNameBreakingTiesById() {
+        // Lower-case "zzzz" sorts after every other test's names
+        String base = "zzzz-keyset-" + System.nanoTime();
+        Employee c = create(base + "-c");
+        Employee b1 = create(base + "-b");
+        Employee a = create(base + "-a");
+        Employee b2 = create(base + "-b");
+        String start = new EmployeeCursor(SortKey.NAME, base, 0L).encode();
+
+        CursorPage<EmployeeResponse> first = employeeService.getEmployeesAfter(start, "name", 2);
+        assertEquals(ids(a, b1), ids(first));
+
+        // The cursor sits between the two "-b" rows; the second one must not be skipped or repeated
+        CursorPage<EmployeeResponse> second = employeeService.getEmployeesAfter(first.getNextCursor(), "name", 2);
+        assertEquals(ids(b2, c), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testBadTokenAndSizeLimits() throws Exception {
+        assertThrows(InvalidCursorException.class, () -> employeeService.getEmployeesAfter("not*base64", "id", 2));
+
+        mockMvc.perform(get("/api/v1/employees").param("after", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/employees").param("after", "").param("sort", "salary"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/employees").param("after", "").param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        // Too large a size used to overflow the one-row lookahead; now it is cut down
+        create("keyset-size");
+        mockMvc.perform(get("/api/v1/employees").param("after", "").param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").isNumber());
+    }
+
+    private Employee create(String name) {
+        String unique = name + System.nanoTime();
+        return employeeService.createEmployee(
+                new Employee(name, unique + "@example.com", "IT", 50000.0, null, false));
+    }
+
+    private static List<Long> ids(Employee... employees) {
+        return List.of(employees).stream().map(Employee::getId).toList();
+    }
+
+    private static List<Long> ids(CursorPage<EmployeeResponse> page) {
+        return page.getContent().stream().map(EmployeeResponse::getId).toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.ImportReport;
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.archtech.store.services.EmployeeExportService;
+import com.archtech.store.services.EmployeeImportService;
+import com.archtech.store.services.EmployeeService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The export's output for a few rows created here, picked out by id from
+ * everything else in the table
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmployeeExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeExportService exportService;
+
+    @Autowired
+    private EmployeeImportService importService;
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Employee manager;
+    private Employee report;
+
+    @BeforeEach
+    void setUp() {
+        String unique = Long.toString(System.nanoTime(), 36);
+        manager = employeeService.createEmployee(new Employee("Export Manager " + unique,
+                "manager." + unique + "@export.example.com", "Ops", null, null, true));
+        report = employeeService.createEmployee(new Employee("Doe, \"JJ\" " + unique,
+                "report." + unique + "@export.example.com", "R&D, Labs", 51000.5, manager, false));
+    }
+
+    @Test
+    void testNdjsonHasOneObjectPerEmployee() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportNdjson(out);
+
+        Map<Long, JsonNode> rows = new HashMap<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            rows.put(row.get("id").asLong(), row);
+        }
+
+        JsonNode exported = rows.get(report.getId());
+        assertEquals(report.getEmployeeName(), exported.get("name").asText());
+        assertEquals(report.getEmail(), exported.get("email").asText());
+        assertEquals("R&D, Labs", exported.get("dept").asText());
+        assertEquals(51000.5, exported.get("salary").asDouble());
+        assertFalse(exported.get("isManager").asBoolean());
+        assertEquals(manager.getId(), exported.get("managerId").asLong());
+        assertFalse(exported.get("createdDate").isNull());
+
+        JsonNode top = rows.get(manager.getId());
+        assertTrue(top.get("isManager").asBoolean());
+        assertTrue(top.get("salary").isNull());
+        assertTrue(top.get("managerId").isNull());
+    }
+
+    @Test
+    void testCsvIsStreamedWithHeaderAndQuotedFields() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/employees/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The export's own timeout, not the short one for other async requests
+        assertEquals(Duration.ofMinutes(30).toMillis(), started.getRequest().getAsyncContext().getTimeout());
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"employees.csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<String> lines = body.lines().toList();
+        assertEquals("id,name,email,dept,salary,isManager,managerId,createdDate,updatedDate", lines.get(0));
+        // No salary and no manager leave their fields empty
+        String managerLine = lineOf(lines, manager);
+        assertTrue(managerLine.startsWith(manager.getId() + "," + manager.getEmployeeName() + ","
+                + manager.getEmail() + ",Ops,,true,,"), managerLine);
+
+        // Commas and quotes put the field in quotes, with inner quotes doubled
+        String reportLine = lineOf(lines, report);
+        String escapedName = "\"" + report.getEmployeeName().replace("\"", "\"\"") + "\"";
+        assertTrue(reportLine.startsWith(report.getId() + "," + escapedName + "," + report.getEmail()
+                + ",\"R&D, Labs\",51000.5,false," + manager.getId() + ","), reportLine);
+    }
+
+    @Test
+    void testCsvWithLineBreaksImportsBack() throws Exception {
+        String unique = Long.toString(System.nanoTime(), 36);
+        Employee multiline = employeeService.createEmployee(new Employee("Two\nlines, \"quoted\" " + unique,
+                "multiline." + unique + "@export.example.com", "Ops\r\nNight shift", 40000.0, null, false));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportCsv(out);
+
+        // The header and this employee's record, which spans three lines
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        int first = lines.indexOf(lineOf(lines, multiline));
+        String csv = lines.get(0) + "\n" + String.join("\n", lines.subList(first, first + 3)) + "\n";
+
+        employeeService.deleteEmployeeById(multiline.getId());
+        ImportReport imported = importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, imported.getCreated(), () -> imported.getRows().get(0).getError());
+        Employee restored = repository.findByEmail(multiline.getEmail()).orElseThrow();
+        assertEquals(multiline.getEmployeeName(), restored.getEmployeeName());
+        // Line breaks come back as \n
+        assertEquals("Ops\nNight shift", restored.getDept());
+        assertEquals(40000.0, restored.getSalary());
+    }
+
+    private static String lineOf(List<String> lines, Employee employee) {
+        return lines.stream()
+                .filter(line -> line.startsWith(employee.getId() + ","))
+                .findFirst()
+                .orElseThrow();
+    }
+}
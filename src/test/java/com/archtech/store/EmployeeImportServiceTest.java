@@ -0,0 +1,218 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.ImportReport;
+import com.archtech.store.dto.ImportReport.RowResult;
+import com.archtech.store.dto.ImportReport.RowStatus;
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.archtech.store.services.DepartmentRegistry;
+import com.archtech.store.services.EmployeeImportService;
+import com.archtech.store.services.EmployeeService;
+import com.archtech.store.services.GroupCommitWriter;
+import com.archtech.store.services.OrgChartIndex;
+import com.archtech.store.services.ReportCountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk import against the database, with chunks of two rows so that a few
+ * lines are enough to cross chunk boundaries
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeImportServiceTest {
+
+    private static final String HEADER = "name,email,dept,salary,isManager,managerId,managerEmail\n";
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private OrgChartIndex orgChart;
+
+    @Autowired
+    private DepartmentRegistry departments;
+
+    @Autowired
+    private ReportCountService reportCounts;
+
+    @Autowired
+    private GroupCommitWriter writer;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private EmployeeImportService importService;
+    private String run;
+
+    @BeforeEach
+    void setUp() {
+        importService = new EmployeeImportService(repository, orgChart, departments, reportCounts, writer,
+                entityManager, transactionTemplate, objectMapper, validator, 2);
+        run = Long.toString(System.nanoTime(), 36);
+    }
+
+    @Test
+    void testCsvQuotedFieldsAndByteOrderMark() throws IOException {
+        ImportReport report = importService.importCsv(body("\uFEFF" + HEADER
+                + "\"Doe, Jane\"," + email("jane") + ",\"A,\"\"B\"\"\",100,true,,\n"
+                + "\"Plain\"," + email("plain") + ",IT,,false,,\n"));
+
+        assertEquals(2, report.getCreated(), () -> errors(report));
+        Employee jane = repository.findByEmail(email("jane")).orElseThrow();
+        assertEquals("Doe, Jane", jane.getEmployeeName());
+        assertEquals("A,\"B\"", jane.getDept());
+        assertEquals(100.0, jane.getSalary());
+        assertTrue(jane.getIsManager());
+        assertNull(repository.findByEmail(email("plain")).orElseThrow().getSalary());
+    }
+
+    @Test
+    void testQuotedFieldsSpanLineBreaks() throws IOException {
+        ImportReport report = importService.importCsv(body(HEADER
+                + "\"First line\nsecond, \"\"quoted\"\"\n\nafter a blank\"," + email("multi") + ",IT,1,false,,\n"
+                + "Next," + email("next") + ",IT,1,false,,\n"));
+
+        assertEquals(2, report.getCreated(), () -> errors(report));
+        assertEquals("First line\nsecond, \"quoted\"\n\nafter a blank",
+                repository.findByEmail(email("multi")).orElseThrow().getEmployeeName());
+        // Reported at the line each record starts on
+        assertRow(report.getRows().get(0), 2, RowStatus.CREATED, null);
+        assertRow(report.getRows().get(1), 6, RowStatus.CREATED, null);
+    }
+
+    @Test
+    void testMalformedRowsAreReportedByLine() throws IOException {
+        ImportReport report = importService.importCsv(body(HEADER
+                + "Good," + email("good") + ",IT,1,false,,\n"
+                + "\n"
+                + "Bad Salary," + email("salary") + ",IT,lots,false,,\n"
+                + "No Email,,IT,1,false,,\n"
+                // An open quote runs to the end of the input
+                + "\"Unterminated," + email("open") + ",IT,1,false,,\n"
+                + "Swallowed," + email("swallowed") + ",IT,1,false,,\n"));
+
+        assertEquals(4, report.getTotal());
+        assertEquals(1, report.getCreated());
+        // Line numbers count the header and the blank line
+        assertRow(report.getRows().get(0), 2, RowStatus.CREATED, null);
+        assertRow(report.getRows().get(1), 4, RowStatus.FAILED, "Malformed CSV");
+        assertRow(report.getRows().get(2), 5, RowStatus.FAILED, "Email is required");
+        assertRow(report.getRows().get(3), 6, RowStatus.FAILED, "Malformed CSV: Unterminated quoted field");
+
+        ImportReport ndjson = importService.importNdjson(body("{\"name\": \"Half\", \n"));
+        assertRow(ndjson.getRows().get(0), 1, RowStatus.FAILED, "Malformed JSON");
+    }
+
+    @Test
+    void testManagersAndDuplicatesAcrossChunks() throws IOException {
+        Employee existing = employeeService.createEmployee(
+                new Employee("Existing " + run, email("existing"), "IT", 1.0, null, true));
+        Employee notManager = employeeService.createEmployee(
+                new Employee("Individual " + run, email("individual"), "IT", 1.0, null, false));
+
+        ImportReport report = importService.importCsv(body(HEADER
+                // chunk 1: a new manager under an existing one, by id
+                + "Lead," + email("lead") + ",IT,1,true," + existing.getId() + ",\n"
+                + "Dup," + email("dup") + ",IT,1,false,,\n"
+                // chunk 2: rows pointing at chunk 1 by email, and a repeat of its email
+                + "Dev," + email("dev") + ",IT,1,false,," + email("lead") + "\n"
+                + "Dup Again," + email("dup") + ",IT,1,false,,\n"
+                // chunk 3: bad references
+                + "Orphan," + email("orphan") + ",IT,1,false,," + email("nobody") + "\n"
+                + "Wrong Boss," + email("wrong") + ",IT,1,false," + notManager.getId() + ",\n"
+                // chunk 4: the same email twice in one chunk, and a taken one
+                + "Twin," + email("twin") + ",IT,1,false,,\n"
+                + "Twin," + email("twin") + ",IT,1,false,,\n"
+                + "Taken," + email("existing") + ",IT,1,false,,\n"));
+
+        assertEquals(9, report.getTotal());
+        assertEquals(4, report.getCreated(), () -> errors(report));
+        assertRow(report.getRows().get(3), 5, RowStatus.FAILED, "Email is already in use");
+        assertRow(report.getRows().get(4), 6, RowStatus.FAILED, "Manager not found with email: " + email("nobody"));
+        assertRow(report.getRows().get(5), 7, RowStatus.FAILED, "is not designated as a manager");
+        assertRow(report.getRows().get(6), 8, RowStatus.CREATED, null);
+        assertRow(report.getRows().get(7), 9, RowStatus.FAILED, "Email is already in use");
+        assertRow(report.getRows().get(8), 10, RowStatus.FAILED, "Email is already in use");
+
+        // Loaded with their managers, outside any session
+        Employee lead = employeeService.getEmployee(report.getRows().get(0).getId()).orElseThrow();
+        Employee dev = employeeService.getEmployee(report.getRows().get(2).getId()).orElseThrow();
+        assertEquals(email("lead"), lead.getEmail());
+        assertEquals(email("dev"), dev.getEmail());
+        assertEquals(existing.getId(), lead.getManager().getId());
+        assertEquals(lead.getId(), dev.getManager().getId());
+        // Counters and org chart follow the imported links
+        assertEquals(1, lead.getDirectReports());
+        assertEquals(2, repository.findById(existing.getId()).orElseThrow().getSpan());
+        assertTrue(orgChart.wouldCreateCycle(lead.getId(), dev.getId()));
+    }
+
+    @Test
+    void testChunksCommitThroughTheWriter() throws IOException {
+        long committedBefore = writer.getStatistics().getCommitted();
+
+        ImportReport report = importService.importNdjson(body(
+                "{\"name\": \"First\", \"email\": \"" + email("first") + "\", \"dept\": \"Queued " + run + "\", \"salary\": 10}\n"
+                + "{\"name\": \"Second\", \"email\": \"" + email("second") + "\", \"dept\": \"Queued " + run + "\", \"salary\": 30}\n"
+                + "{\"name\": \"Third\", \"email\": \"" + email("third") + "\", \"dept\": \"Queued " + run + "\", \"salary\": 20}\n"));
+
+        assertEquals(3, report.getCreated(), () -> errors(report));
+        // One write per chunk of two rows
+        assertTrue(writer.getStatistics().getCommitted() >= committedBefore + 2);
+        // The registry saw the rows before the import returned
+        assertEquals(3, departments.getStats("Queued " + run).getHeadcount());
+    }
+
+    private String email(String name) {
+        return name + "." + run + "@import.example.com";
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertRow(RowResult row, int line, RowStatus status, String error) {
+        assertEquals(line, row.getLine());
+        assertEquals(status, row.getStatus(), row.getError());
+        if (error != null) {
+            assertTrue(row.getError().contains(error), row.getError());
+        }
+    }
+
+    private static String errors(ImportReport report) {
+        return report.getRows().stream()
+                .filter(row -> row.getStatus() == RowStatus.FAILED)
+                .map(row -> row.getLine() + ": " + row.getError())
+                .toList()
+                .toString();
+    }
+}
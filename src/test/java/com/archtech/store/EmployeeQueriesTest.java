@@ -0,0 +1,133 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.dto.ManagerSummary;
+import com.archtech.store.dto.ReportingChainEntry;
+import com.archtech.store.exception.EmployeeNotFoundException;
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.archtech.store.services.EmployeeService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Results of the repository's hand-written queries against real rows
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeQueriesTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testReportingChainRunsFromEmployeeToTop() {
+        Employee ceo = create("ceo", null, true);
+        Employee vp = create("vp", ceo, true);
+        Employee lead = create("lead", vp, true);
+        Employee dev = create("dev", lead, false);
+
+        List<ReportingChainEntry> chain = employeeRepository.findReportingChain(dev.getId());
+
+        assertEquals(List.of(dev.getId(), lead.getId(), vp.getId(), ceo.getId()),
+                chain.stream().map(ReportingChainEntry::getId).toList());
+        assertEquals(List.of(0, 1, 2, 3), chain.stream().map(ReportingChainEntry::getLevel).toList());
+        assertEquals(lead.getId(), chain.get(0).getManagerId());
+        assertEquals(dev.getEmployeeName(), chain.get(0).getEmployeeName());
+        assertFalse(chain.get(0).getIsManager());
+        assertTrue(chain.get(3).getIsManager());
+        assertNull(chain.get(3).getManagerId());
+    }
+
+    @Test
+    void testReportingChainOfTopLevelAndUnknownEmployee() {
+        Employee ceo = create("alone", null, true);
+
+        List<ReportingChainEntry> chain = employeeService.getReportingHierarchy(ceo.getId());
+        assertEquals(1, chain.size());
+        assertEquals(ceo.getId(), chain.get(0).getId());
+        assertEquals(0, chain.get(0).getLevel());
+        assertNull(chain.get(0).getManagerId());
+
+        assertTrue(employeeRepository.findReportingChain(-1L).isEmpty());
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.getReportingHierarchy(-1L));
+    }
+
+    @Test
+    void testProjectionsMatchEntities() {
+        Employee manager = create("projected-manager", null, true);
+        Employee lead = create("projected-lead", manager, true);
+        Employee dev = create("projected-dev", lead, false);
+        Employee loner = create("projected-loner", null, false);
+        // Cached entities keep the timestamps as persisted, finer than SQLite stores them
+        entityManagerFactory.getCache().evictAll();
+
+        // Keyset page starting at the manager: it and everyone created after it
+        List<EmployeeResponse> page = employeeRepository.findResponsesAfterId(manager.getId() - 1, Limit.of(4));
+        assertEquals(List.of(manager.getId(), lead.getId(), dev.getId(), loner.getId()),
+                page.stream().map(EmployeeResponse::getId).toList());
+        for (EmployeeResponse projected : page) {
+            assertMatchesEntity(projected);
+        }
+        // No manager comes through the LEFT JOIN as a null summary, not a missing row
+        assertNull(page.get(3).getManager());
+        assertEquals(1, page.get(0).getNumSubordinates());
+        assertEquals(2, page.get(0).getSpan());
+
+        List<EmployeeResponse> reports = employeeRepository.findSubordinateResponses(lead.getId());
+        assertEquals(1, reports.size());
+        assertMatchesEntity(reports.get(0));
+        assertEquals(lead.getEmployeeName(), reports.get(0).getManager().getName());
+
+        employeeRepository.findAllManagerResponses().stream()
+                .filter(response -> response.getId().equals(lead.getId()))
+                .findFirst()
+                .ifPresentOrElse(this::assertMatchesEntity, () -> fail("lead is not listed as a manager"));
+    }
+
+    // The projection must carry what mapping the loaded entity would
+    private void assertMatchesEntity(EmployeeResponse projected) {
+        EmployeeResponse mapped = new EmployeeResponse(employeeService.getEmployee(projected.getId()).orElseThrow());
+        assertEquals(mapped.getEmployeeName(), projected.getEmployeeName());
+        assertEquals(mapped.getEmail(), projected.getEmail());
+        assertEquals(mapped.getDept(), projected.getDept());
+        assertEquals(mapped.getSalary(), projected.getSalary());
+        assertEquals(mapped.isManager(), projected.isManager());
+        assertEquals(mapped.getNumSubordinates(), projected.getNumSubordinates());
+        assertEquals(mapped.getSpan(), projected.getSpan());
+        assertEquals(mapped.getCreatedDate(), projected.getCreatedDate());
+        assertEquals(mapped.getUpdatedDate(), projected.getUpdatedDate());
+
+        ManagerSummary expected = mapped.getManager();
+        ManagerSummary actual = projected.getManager();
+        assertEquals(expected == null, actual == null, "manager of " + projected.getEmployeeName());
+        if (expected != null) {
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getEmail(), actual.getEmail());
+            assertEquals(expected.getDept(), actual.getDept());
+        }
+    }
+
+    private Employee create(String name, Employee manager, boolean isManager) {
+        String unique = name + System.nanoTime();
+        return employeeService.createEmployee(
+                new Employee("Query " + unique, unique + "@example.com", "Ops", 60000.0, manager, isManager));
+    }
+}
@@ -0,0 +1,160 @@
+package com.archtech.store;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the old LIKE '%term%' search with the FTS5 index on a seeded
+ * SQLite file. Skipped by default; run with
+ * mvn test -Dtest=EmployeeSearchBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=1000000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmployeeSearchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchBenchmarkTest.class);
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int ITERATIONS = 20;
+    // From broad (10% of rows) to selective to absent
+    private static final List<String> TERMS = List.of("alice", "judy walker", "walker 2s", "quentin");
+
+    private static final String LIKE_QUERY =
+        "SELECT id FROM employee WHERE " +
+        "LOWER(employee_name) LIKE LOWER('%' || ? || '%') OR LOWER(email) LIKE LOWER('%' || ? || '%') " +
+        "LIMIT 20";
+    private static final String LIKE_COUNT =
+        "SELECT COUNT(*) FROM employee WHERE " +
+        "LOWER(employee_name) LIKE LOWER('%' || ? || '%') OR LOWER(email) LIKE LOWER('%' || ? || '%')";
+    private static final String FTS_QUERY =
+        "SELECT rowid FROM employee_fts WHERE employee_fts MATCH ? " +
+        "ORDER BY bm25(employee_fts, 2.0, 1.0), rowid LIMIT 20";
+    private static final String FTS_COUNT =
+        "SELECT COUNT(*) FROM employee_fts WHERE employee_fts MATCH ?";
+
+    private static Path dbFile;
+    private static Connection connection;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        dbFile = Files.createTempFile("employee-search-benchmark", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+
+        // The employee table and its FTS index, as the migrations build them
+        Flyway.configure().dataSource("jdbc:sqlite:" + dbFile, null, null).target("2").load().migrate();
+
+        String[] first = {"alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi", "ivan", "judy"};
+        String[] last = {"smith", "jones", "brown", "taylor", "wilson", "davies", "evans", "thomas", "roberts", "walker"};
+        Random random = new Random(42);
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO employee (id, employee_name, email, dept, salary, is_manager) VALUES (?, ?, ?, ?, ?, 0)")) {
+            for (int id = 1; id <= ROWS; id++) {
+                String f = first[random.nextInt(first.length)];
+                String l = last[random.nextInt(last.length)];
+                ps.setLong(1, id);
+                ps.setString(2, capitalize(f) + " " + capitalize(l) + " " + Integer.toString(id, 36));
+                ps.setString(3, f + "." + l + id + "@example.com");
+                ps.setString(4, "D" + (id % 50));
+                ps.setDouble(5, 40000 + random.nextInt(100000));
+                ps.addBatch();
+                if (id % 10_000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @AfterAll
+    static void cleanup() throws Exception {
+        connection.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Test
+    void compareLikeAndFullTextSearch() throws Exception {
+        StringBuilder report = new StringBuilder(String.format(
+                "Employee search, %,d rows, mean ms of %d runs%n%-12s %14s %14s %14s %14s",
+                ROWS, ITERATIONS, "term", "LIKE page", "FTS5 page", "LIKE count", "FTS5 count"));
+
+        for (String term : TERMS) {
+            String match = toMatch(term);
+            report.append(String.format("%n%-12s %14.3f %14.3f %14.3f %14.3f", term,
+                    time(LIKE_QUERY, term, term), time(FTS_QUERY, match),
+                    time(LIKE_COUNT, term, term), time(FTS_COUNT, match)));
+        }
+        log.info("{}", report);
+
+        // Whole-word terms find the same rows either way; a name nobody has finds none
+        assertEquals(count(LIKE_COUNT, "alice", "alice"), count(FTS_COUNT, toMatch("alice")));
+        assertTrue(count(FTS_COUNT, toMatch("alice")) > 0);
+        assertEquals(0, count(FTS_COUNT, toMatch("quentin")));
+    }
+
+    private static long count(String sql, String... params) throws Exception {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static double time(String sql, String... params) throws Exception {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+            drain(ps); // warm up
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                drain(ps);
+            }
+            return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        }
+    }
+
+    private static void drain(PreparedStatement ps) throws Exception {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                rs.getLong(1);
+            }
+        }
+    }
+
+    // Same shape as EmployeeService's match expression: every word is a required prefix term
+    private static String toMatch(String term) {
+        StringBuilder match = new StringBuilder();
+        for (String word : term.split(" ")) {
+            match.append(match.length() > 0 ? " " : "").append('"').append(word).append("\"*");
+        }
+        return match.toString();
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
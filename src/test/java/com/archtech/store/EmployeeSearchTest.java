@@ -0,0 +1,111 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.EmployeeResponse;
+import com.archtech.store.model.Employee;
+import com.archtech.store.services.EmployeeService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Full-text search through the FTS5 index. Every employee here carries a
+ * word made up for the run, so rows left by earlier runs never match.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeSearchTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    private String tag;
+    private Employee alfa;
+    private Employee bravo;
+    private Employee charlie;
+
+    @BeforeEach
+    void setUp() {
+        tag = "q" + Long.toString(System.nanoTime(), 36);
+        alfa = create("Alfa " + tag + " Smith", "alfa", "Sales", 40000.0, false);
+        bravo = create("Bravo " + tag + " Smithers", "bravo", "Sales", 90000.0, true);
+        // Only the email carries the tag
+        charlie = create("Charlie Jones", tag + ".charlie", "IT", 60000.0, false);
+    }
+
+    @Test
+    void testWordsArePrefixesAndAllRequired() {
+        assertEquals(List.of(alfa.getId(), bravo.getId()), ids(search(tag + " smi")));
+        assertEquals(List.of(bravo.getId()), ids(search(tag + " smithers")));
+        // A prefix of the made-up word itself
+        assertTrue(ids(search(tag.substring(0, tag.length() - 1) + " jon")).contains(charlie.getId()));
+        assertTrue(search(tag + " nobody").isEmpty());
+    }
+
+    @Test
+    void testNameMatchesRankAboveEmailMatches() {
+        Page<EmployeeResponse> page = employeeService.searchByText(tag, PageRequest.of(0, 2));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(alfa.getId(), bravo.getId()), ids(page.getContent()));
+
+        Page<EmployeeResponse> next = employeeService.searchByText(tag, PageRequest.of(1, 2));
+        assertEquals(List.of(charlie.getId()), ids(next.getContent()));
+    }
+
+    @Test
+    void testPunctuationIsNotQuerySyntax() {
+        assertTrue(search("!!! ... --").isEmpty());
+        assertTrue(employeeService.searchByText("\"*()", PageRequest.of(0, 20)).isEmpty());
+        assertTrue(employeeService.searchEmployees("  ", null, null, null, null).size() >= 3);
+        // Quotes, stars and brackets around a word only separate words
+        assertEquals(List.of(bravo.getId()), ids(search("\"" + tag + "\" (smithers)*")));
+    }
+
+    @Test
+    void testSearchCombinesWithColumnFilters() {
+        assertEquals(List.of(alfa.getId(), bravo.getId()),
+                ids(employeeService.searchEmployees(tag, "Sales", null, null, null)));
+        // Name match first, then the email match
+        assertEquals(List.of(bravo.getId(), charlie.getId()),
+                ids(employeeService.searchEmployees(tag, null, 50000.0, null, null)));
+        assertEquals(List.of(bravo.getId()),
+                ids(employeeService.searchEmployees(tag, null, null, null, true)));
+        assertEquals(List.of(charlie.getId()),
+                ids(employeeService.searchEmployees(tag, "IT", 50000.0, 70000.0, false)));
+    }
+
+    @Test
+    void testIndexFollowsUpdatesAndDeletes() {
+        Employee renamed = employeeService.getEmployee(bravo.getId()).orElseThrow();
+        renamed.setEmployeeName("Delta " + tag + "x Walker");
+        employeeService.updateEmployee(bravo.getId(), renamed);
+
+        assertTrue(search(tag + " smithers").isEmpty());
+        assertEquals(List.of(bravo.getId()), ids(search(tag + "x walker")));
+
+        employeeService.deleteEmployeeById(alfa.getId());
+        assertTrue(search(tag + " smith").isEmpty());
+        assertFalse(ids(search(tag)).contains(alfa.getId()));
+    }
+
+    private List<EmployeeResponse> search(String text) {
+        return employeeService.searchByText(text, PageRequest.of(0, 20)).getContent();
+    }
+
+    private Employee create(String name, String emailLocal, String dept, double salary, boolean isManager) {
+        return employeeService.createEmployee(new Employee(name, emailLocal + "." + System.nanoTime() + "@example.com",
+                dept, salary, null, isManager));
+    }
+
+    private static List<Long> ids(List<EmployeeResponse> responses) {
+        return responses.stream().map(EmployeeResponse::getId).toList();
+    }
+}
@@ -4,10 +4,13 @@ import com.archtech.store.model.Employee;
 import com.archtech.store.repository.*;
 import com.archtech.store.services.*;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -17,13 +20,23 @@ class EmployeeServiceTest {
 
     private EmployeeRepository repository;
     private EmployeeValidationService validationService;
+    private OrgChartIndex orgChart;
+    private DepartmentRegistry departments;
     private EmployeeService service;
 
     @BeforeEach
     void setup() {
         repository = Mockito.mock(EmployeeRepository.class);
         validationService = Mockito.mock(EmployeeValidationService.class);
-        service = new EmployeeService(repository, validationService);
+        // Disabled writer: writes run inline on the caller
+        GroupCommitWriter writer = new GroupCommitWriter(null, null, false, 1, 1, Duration.ofSeconds(1));
+        orgChart = new OrgChartIndex(repository, writer);
+        departments = new DepartmentRegistry(repository, writer);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new EmployeeService(repository, validationService, orgChart, departments, writer,
+                new ReportCountService(repository, writer, meterRegistry, Duration.ZERO),
+                new EmployeeLoader(repository, null, null, meterRegistry, false, 1, Duration.ZERO),
+                ObservationRegistry.NOOP);
     }
 
     @Test
@@ -67,5 +80,72 @@ class EmployeeServiceTest {
 
         assertEquals("Charlie", created.getEmployeeName());
         verify(repository).save(emp);
+        assertEquals(List.of("Sales"), service.getAllDepartments());
+    }
+
+    @Test
+    void testDeleteManagerReassignsToLeastLoadedManagerOutsideSubtree() {
+        Employee removed = new Employee("Dave", "dave@example.com", "IT", 95000.0, null, true);
+        Employee replacement = new Employee("Erin", "erin@example.com", "IT", 90000.0, null, true);
+        departments.add("IT", 95000.0);
+        departments.add("IT", 90000.0);
+
+        // 3 reports to 2, so 3 must not take over 2's team even though it is least loaded
+        orgChart.setManager(3L, 2L);
+        when(validationService.wouldCreateCycle(2L, 3L)).thenReturn(true);
+        when(repository.findById(2L)).thenReturn(Optional.of(removed));
+        when(repository.findManagerIdsByLoad(2L)).thenReturn(List.of(3L, 4L));
+        when(repository.getReferenceById(4L)).thenReturn(replacement);
+
+        service.deleteManager(2L);
+
+        verify(repository).reassignSubordinates(eq(2L), eq(replacement), any());
+        verify(repository).deleteById(2L);
+        verify(repository, never()).save(any());
+        assertEquals(4L, orgChart.getManagerId(3L));
+        assertEquals(1, departments.getStats("IT").getHeadcount());
+    }
+
+    @Test
+    void testTransferMovesSpanFromOldChainToNewChain() {
+        // 1 manages 2 and 3; 4 reports to 2 and brings its own report with it
+        Employee top = employee(1L, null);
+        Employee oldManager = employee(2L, top);
+        Employee newManager = employee(3L, top);
+        Employee moved = employee(4L, oldManager);
+        top.addReports(2, 4);
+        oldManager.addReports(1, 2);
+        moved.addReports(1, 1);
+
+        when(repository.findById(4L)).thenReturn(Optional.of(moved));
+        when(repository.findById(3L)).thenReturn(Optional.of(newManager));
+        when(repository.findChainIds(2L)).thenReturn(List.<Number>of(2L, 1L));
+        when(repository.findChainIds(3L)).thenReturn(List.<Number>of(3L, 1L));
+        when(repository.findAllById(any())).thenAnswer(call -> {
+            Map<Long, Employee> byId = Map.of(1L, top, 2L, oldManager, 3L, newManager);
+            List<Employee> found = new ArrayList<>();
+            for (Long id : call.<Iterable<Long>>getArgument(0)) {
+                found.add(byId.get(id));
+            }
+            return found;
+        });
+        when(repository.save(moved)).thenReturn(moved);
+
+        service.transferEmployee(4L, 3L);
+
+        assertEquals(0, oldManager.getDirectReports());
+        assertEquals(0, oldManager.getSpan());
+        assertEquals(1, newManager.getDirectReports());
+        assertEquals(2, newManager.getSpan());
+        // Still below 1 either way
+        assertEquals(2, top.getDirectReports());
+        assertEquals(4, top.getSpan());
+    }
+
+    private static Employee employee(Long id, Employee manager) {
+        Employee employee = new Employee("Employee " + id, "employee" + id + "@example.com", "IT", 50000.0,
+                manager, true);
+        employee.setId(id);
+        return employee;
     }
 }
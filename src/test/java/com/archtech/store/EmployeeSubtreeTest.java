@@ -0,0 +1,117 @@
+package com.archtech.store;
+
+import com.archtech.store.model.Employee;
+import com.archtech.store.services.EmployeeService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.archtech.store.config.QueryBudgetFilter.QUERY_COUNT_HEADER;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmployeeSubtreeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSubtreeIsPagedNearestFirstAndDepthLimited() throws Exception {
+        Employee top = create("top", null, true);
+        Employee lead = create("lead", top, true);
+        Employee peer = create("peer", top, false);
+        Employee dev = create("dev", lead, false);
+
+        // One indexed join; a first page that isn't full needs no count query
+        mockMvc.perform(get("/api/v1/employees/manager/" + top.getId() + "/subtree"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QUERY_COUNT_HEADER, "1"))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[*].id").value(contains(
+                        lead.getId().intValue(), peer.getId().intValue(), dev.getId().intValue())))
+                .andExpect(jsonPath("$.content[*].depth").value(contains(1, 1, 2)));
+
+        mockMvc.perform(get("/api/v1/employees/manager/" + top.getId() + "/subtree")
+                        .param("maxDepth", "1").param("page", "1").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[*].id").value(contains(peer.getId().intValue())));
+    }
+
+    @Test
+    void testWritesKeepClosureInStepWithManagerLinks() {
+        Employee top = create("closure-top", null, true);
+        Employee left = create("closure-left", top, true);
+        Employee right = create("closure-right", top, true);
+        Employee a = create("closure-a", left, true);
+        Employee b = create("closure-b", a, false);
+        assertMatchesManagerLinks(top, left, right, a, b);
+
+        // a moves with its own report
+        employeeService.transferEmployee(a.getId(), right.getId());
+        assertMatchesManagerLinks(top, left, right, a, b);
+
+        Employee moved = employeeService.getEmployee(a.getId()).orElseThrow();
+        moved.setManager(null);
+        employeeService.updateEmployee(a.getId(), moved);
+        assertMatchesManagerLinks(top, left, right, a, b);
+
+        // b goes to whichever manager is least loaded
+        employeeService.deleteManager(a.getId());
+        assertMatchesManagerLinks(top, left, right, b);
+
+        employeeService.deleteEmployeeById(b.getId());
+        assertMatchesManagerLinks(top, left, right);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_closure WHERE ancestor_id IN (?, ?) OR descendant_id IN (?, ?)",
+                Integer.class, a.getId(), b.getId(), a.getId(), b.getId()));
+    }
+
+    @Test
+    void testUnknownManagerAndInvalidDepth() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/manager/-1/subtree"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/employees/manager/1/subtree").param("maxDepth", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Employee create(String name, Employee manager, boolean isManager) {
+        String unique = name + System.nanoTime();
+        return employeeService.createEmployee(
+                new Employee("Subtree " + unique, unique + "@example.com", "IT", 50000.0, manager, isManager));
+    }
+
+    // Each employee's closure rows must be exactly what walking manager_id down from it finds
+    private void assertMatchesManagerLinks(Employee... employees) {
+        for (Employee employee : employees) {
+            String walked = jdbcTemplate.queryForObject(
+                    "WITH RECURSIVE below(id, depth) AS (SELECT ?, 0 " +
+                    "UNION ALL SELECT e.id, b.depth + 1 FROM employee e JOIN below b ON e.manager_id = b.id) " +
+                    "SELECT group_concat(id || ':' || depth) FROM (SELECT * FROM below ORDER BY id)",
+                    String.class, employee.getId());
+            String stored = jdbcTemplate.queryForObject(
+                    "SELECT group_concat(descendant_id || ':' || depth) FROM " +
+                    "(SELECT * FROM employee_closure WHERE ancestor_id = ? ORDER BY descendant_id)",
+                    String.class, employee.getId());
+            assertEquals(walked, stored, "subtree of " + employee.getEmployeeName());
+        }
+    }
+}
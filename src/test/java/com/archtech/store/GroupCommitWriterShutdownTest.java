@@ -0,0 +1,86 @@
+package com.archtech.store;
+
+import com.archtech.store.model.Product;
+import com.archtech.store.repository.ProductRepository;
+import com.archtech.store.services.GroupCommitWriter;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs in a context of its own, whose writer the last test shuts down. The
+ * context is left open: closing it would close the JCache caches it shares
+ * with every other test context.
+ */
+@SpringBootTest(properties = "store.writes.group-commit.timeout=500ms")
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class GroupCommitWriterShutdownTest {
+
+    @Autowired
+    private GroupCommitWriter writer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @Order(1)
+    void testExecuteGivesUpOnAQueuedWriteAndSkipsIt() throws Exception {
+        CountDownLatch release = holdWriter();
+        long failedBefore = writer.getStatistics().getFailed();
+        long productsBefore = productRepository.count();
+        Product skipped = new Product("Skipped", 1.0, "group-commit", false, 1);
+
+        assertThrows(IllegalStateException.class, () -> writer.execute(() -> productRepository.save(skipped)));
+        release.countDown();
+
+        // Queued behind the skipped write, so that one has been dealt with by now
+        assertTrue(writer.submit(() -> true).join());
+        assertEquals(productsBefore, productRepository.count());
+        assertEquals(failedBefore + 1, writer.getStatistics().getFailed());
+    }
+
+    @Test
+    @Order(2)
+    void testShutdownCommitsQueuedWritesAndRejectsNewOnes() throws Exception {
+        CountDownLatch release = holdWriter();
+        Product queued = new Product("Queued before shutdown", 1.0, "group-commit", false, 1);
+        CompletableFuture<Product> saved = writer.submit(() -> productRepository.save(queued));
+        release.countDown();
+
+        writer.destroy();
+
+        assertTrue(productRepository.findById(saved.join().getId()).isPresent());
+        CompletionException rejected = assertThrows(CompletionException.class, () -> writer.submit(() -> true).join());
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+        productRepository.delete(queued);
+    }
+
+    private CountDownLatch holdWriter() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+}
@@ -0,0 +1,330 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.ChangePasswordRequest;
+import com.archtech.store.exception.CircularManagerReferenceException;
+import com.archtech.store.model.Employee;
+import com.archtech.store.model.Product;
+import com.archtech.store.model.UserAccount;
+import com.archtech.store.repository.ProductRepository;
+import com.archtech.store.repository.UserAccountRepository;
+import com.archtech.store.services.DepartmentRegistry;
+import com.archtech.store.services.EmployeeService;
+import com.archtech.store.services.GroupCommitWriter;
+import com.archtech.store.services.OrgChartIndex;
+import com.archtech.store.services.UserAccountService;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GroupCommitWriterTest {
+
+    @Autowired
+    private GroupCommitWriter writer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private OrgChartIndex orgChart;
+
+    @Autowired
+    private DepartmentRegistry departments;
+
+    @Autowired
+    private UserAccountService userAccountService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testQueuedWritesCommitTogether() throws Exception {
+        CountDownLatch release = holdWriter();
+
+        List<CompletableFuture<Product>> writes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Product product = new Product("Grouped " + i, 1.0, "group-commit", false, 1);
+            writes.add(writer.submit(() -> productRepository.save(product)));
+        }
+        long batchesBefore = writer.getStatistics().getBatches();
+        release.countDown();
+
+        List<Long> ids = writes.stream().map(CompletableFuture::join).map(Product::getId).toList();
+        assertEquals(20, ids.stream().distinct().count());
+        assertEquals(20, productRepository.findAllById(ids).size());
+        // The held write's group, then one group for all twenty
+        assertEquals(batchesBefore + 2, writer.getStatistics().getBatches());
+        assertTrue(writer.getStatistics().getLargestBatch() >= 20);
+
+        productRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void testFailedWriteRollsBackAlone() throws Exception {
+        String taken = "taken-" + System.nanoTime();
+        UserAccount existing = userAccountRepository.save(
+                new UserAccount("Taken", taken, taken + "@group-commit.example.com", "x"));
+        CountDownLatch release = holdWriter();
+
+        Product first = new Product("Kept first", 1.0, "group-commit", false, 1);
+        Product rolledBack = new Product("Rolled back", 1.0, "group-commit", false, 1);
+        Product last = new Product("Kept last", 1.0, "group-commit", false, 1);
+
+        CompletableFuture<Product> keptFirst = writer.submit(() -> productRepository.save(first));
+        CompletableFuture<Product> thrown = writer.submit(() -> {
+            productRepository.save(rolledBack);
+            throw new IllegalStateException("rejected after saving");
+        });
+        // Fails inside the repository's own transactional call, on the constraint
+        CompletableFuture<UserAccount> duplicate = writer.submit(() -> userAccountRepository.save(
+                new UserAccount("Copy", taken, "copy-" + taken + "@group-commit.example.com", "x")));
+        CompletableFuture<Product> keptLast = writer.submit(() -> productRepository.save(last));
+        release.countDown();
+
+        List<Long> kept = List.of(keptFirst.join().getId(), keptLast.join().getId());
+        CompletionException thrownFailure = assertThrows(CompletionException.class, thrown::join);
+        assertInstanceOf(IllegalStateException.class, thrownFailure.getCause());
+        CompletionException duplicateFailure = assertThrows(CompletionException.class, duplicate::join);
+        assertInstanceOf(DataAccessException.class, duplicateFailure.getCause());
+
+        assertEquals(2, productRepository.findAllById(kept).size());
+        assertTrue(productRepository.findById(rolledBack.getId()).isEmpty());
+        assertEquals(1, userAccountRepository.findByUserNameOrEmail(taken).size());
+
+        productRepository.deleteAllById(kept);
+        userAccountRepository.deleteById(existing.getId());
+    }
+
+    @Test
+    void testFailedWriteEvictsOnlyTheRowsItWrote() throws Exception {
+        Product read = productRepository.save(new Product("Only read", 1.0, "group-commit", false, 1));
+        Product updated = productRepository.save(new Product("Original", 1.0, "group-commit", false, 1));
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, read.getId()));
+        CountDownLatch release = holdWriter();
+
+        CompletableFuture<Product> failedRead = writer.submit(() -> {
+            productRepository.findById(read.getId());
+            throw new IllegalStateException("rejected after reading");
+        });
+        CompletableFuture<Product> failedUpdate = writer.submit(() -> {
+            Product product = productRepository.findById(updated.getId()).orElseThrow();
+            product.setName("Rolled back");
+            productRepository.saveAndFlush(product);
+            throw new IllegalStateException("rejected after updating");
+        });
+        release.countDown();
+
+        assertThrows(CompletionException.class, failedRead::join);
+        assertThrows(CompletionException.class, failedUpdate::join);
+        // A read sends no DML, so the rest of the cache is left alone
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, read.getId()));
+        assertEquals("Original", productRepository.findById(updated.getId()).orElseThrow().getName());
+
+        productRepository.deleteAllById(List.of(read.getId(), updated.getId()));
+    }
+
+    @Test
+    void testExecuteRethrowsWriteException() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> writer.execute(() -> {
+                    throw new IllegalArgumentException("bad input");
+                }));
+        assertEquals("bad input", e.getMessage());
+    }
+
+    @Test
+    void testAfterCommitActionsRunInCommitOrderAndOnlyForCommittedWrites() throws Exception {
+        List<String> actions = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = holdWriter();
+
+        CompletableFuture<String> first = writer.submit(() -> {
+            writer.afterCommit(() -> actions.add("first"));
+            return "first";
+        });
+        CompletableFuture<String> failed = writer.submit(() -> {
+            writer.afterCommit(() -> actions.add("failed"));
+            throw new IllegalStateException("rejected after registering");
+        });
+        CompletableFuture<String> last = writer.submit(() -> {
+            writer.afterCommit(() -> actions.add("last"));
+            return "last";
+        });
+        release.countDown();
+
+        // Actions have run by the time any future of the group completes
+        assertEquals("first", first.join());
+        assertEquals(List.of("first", "last"), actions);
+        assertThrows(CompletionException.class, failed::join);
+        assertEquals("last", last.join());
+    }
+
+    @Test
+    void testManagerChangesInOneGroupCannotCloseACycle() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        Employee a = employeeService.createEmployee(
+                new Employee("Cycle A " + run, "a." + run + "@group-commit.example.com", "Ops", null, null, true));
+        Employee b = employeeService.createEmployee(
+                new Employee("Cycle B " + run, "b." + run + "@group-commit.example.com", "Ops", null, null, true));
+        CountDownLatch release = holdWriter();
+
+        // Each move is fine on its own; together they would make a and b manage each other
+        CompletableFuture<Employee> aUnderB = writer.submit(() -> employeeService.transferEmployee(a.getId(), b.getId()));
+        CompletableFuture<Employee> bUnderA = writer.submit(() -> employeeService.transferEmployee(b.getId(), a.getId()));
+        release.countDown();
+
+        assertEquals(b.getId(), aUnderB.join().getManager().getId());
+        CompletionException failure = assertThrows(CompletionException.class, bUnderA::join);
+        assertInstanceOf(CircularManagerReferenceException.class, failure.getCause());
+        assertEquals(b.getId(), orgChart.getManagerId(a.getId()));
+        assertNull(orgChart.getManagerId(b.getId()));
+
+        employeeService.transferEmployee(a.getId(), null);
+        employeeService.deleteManager(a.getId());
+        employeeService.deleteManager(b.getId());
+    }
+
+    @Test
+    void testOrgChartRebuildKeepsItsPlaceInCommitOrder() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        Employee lead = employeeService.createEmployee(
+                new Employee("Rebuild lead " + run, "lead." + run + "@group-commit.example.com", "Ops", null, null, true));
+        Employee early = employeeService.createEmployee(
+                new Employee("Rebuild early " + run, "early." + run + "@group-commit.example.com", "Ops", null, null, false));
+        Employee late = employeeService.createEmployee(
+                new Employee("Rebuild late " + run, "late." + run + "@group-commit.example.com", "Ops", null, null, false));
+        CountDownLatch release = holdWriter();
+
+        // A move queued before the rebuild is in its snapshot; one queued after it lands on top
+        CompletableFuture<Employee> before = writer.submit(() -> employeeService.transferEmployee(early.getId(), lead.getId()));
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(orgChart::rebuild);
+        awaitQueueDepth(2);
+        CompletableFuture<Employee> after = writer.submit(() -> employeeService.transferEmployee(late.getId(), lead.getId()));
+        release.countDown();
+
+        before.join();
+        rebuild.join();
+        after.join();
+        assertEquals(lead.getId(), orgChart.getManagerId(early.getId()));
+        assertEquals(lead.getId(), orgChart.getManagerId(late.getId()));
+
+        employeeService.deleteEmployeeById(early.getId());
+        employeeService.deleteEmployeeById(late.getId());
+        employeeService.deleteManager(lead.getId());
+    }
+
+    @Test
+    void testDepartmentRebuildCountsEachCommitOnce() throws Exception {
+        String run = Long.toString(System.nanoTime(), 36);
+        String dept = "Rebuild " + run;
+        CountDownLatch release = holdWriter();
+
+        // The first hire is counted by the rebuild's query, the second by its own adjustment
+        CompletableFuture<Employee> before = writer.submit(() -> employeeService.createEmployee(
+                new Employee("Hire one " + run, "one." + run + "@group-commit.example.com", dept, 10.0, null, false)));
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(departments::rebuild);
+        awaitQueueDepth(2);
+        CompletableFuture<Employee> after = writer.submit(() -> employeeService.createEmployee(
+                new Employee("Hire two " + run, "two." + run + "@group-commit.example.com", dept, 20.0, null, false)));
+        release.countDown();
+
+        Employee first = before.join();
+        rebuild.join();
+        Employee second = after.join();
+        assertEquals(2, departments.getStats(dept).getHeadcount());
+        assertEquals(30.0, departments.getStats(dept).getTotalSalary());
+
+        employeeService.deleteEmployeeById(first.getId());
+        employeeService.deleteEmployeeById(second.getId());
+        assertNull(departments.getStats(dept));
+    }
+
+    @Test
+    void testPasswordUpdateKeepsAnEmailChangeCommittedMeanwhile() throws Exception {
+        String run = "pw-" + System.nanoTime();
+        UserAccount user = userAccountRepository.save(
+                new UserAccount("Password", run, run + "@group-commit.example.com", "x"));
+        CountDownLatch release = holdWriter();
+
+        // The email change queues first; the password update reads the account before it commits
+        CompletableFuture<UserAccount> email = CompletableFuture.supplyAsync(
+                () -> userAccountService.updateEmail(user.getId(), "moved-" + run + "@group-commit.example.com"));
+        awaitQueueDepth(1);
+        CompletableFuture<UserAccount> password = userAccountService.updatePassword(user.getId(), "secret123");
+        release.countDown();
+
+        email.join();
+        password.join();
+        UserAccount stored = userAccountRepository.findById(user.getId()).orElseThrow();
+        assertEquals("moved-" + run + "@group-commit.example.com", stored.getEmail());
+        assertNotEquals("x", stored.getPassword());
+
+        userAccountRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void testPasswordChangeKeepsAnEmailChangeCommittedMeanwhile() throws Exception {
+        String run = "cp-" + System.nanoTime();
+        UserAccount user = userAccountService.createUser(
+                new UserAccount("Change", run, run + "@group-commit.example.com", "secret123")).join();
+        CountDownLatch release = holdWriter();
+
+        CompletableFuture<UserAccount> email = CompletableFuture.supplyAsync(
+                () -> userAccountService.updateEmail(user.getId(), "moved-" + run + "@group-commit.example.com"));
+        awaitQueueDepth(1);
+        CompletableFuture<UserAccount> change = userAccountService.changePassword(user.getId(),
+                new ChangePasswordRequest("secret123", "other456"));
+        release.countDown();
+
+        email.join();
+        change.join();
+        assertEquals("moved-" + run + "@group-commit.example.com",
+                userAccountRepository.findById(user.getId()).orElseThrow().getEmail());
+        assertTrue(userAccountService.checkPassword(user.getId(), "other456").join());
+
+        userAccountService.deleteUser(user.getId());
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writer.getStatistics().getQueueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    // Occupies the writer thread until the returned latch is released, so later writes queue up
+    private CountDownLatch holdWriter() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+}
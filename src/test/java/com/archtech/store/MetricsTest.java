@@ -0,0 +1,74 @@
+package com.archtech.store;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Actuator's Prometheus registry, as scraped on the management port
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheus;
+
+    @Test
+    void testRequestsAreTimedByRouteTemplate() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/id/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+        long before = requestsTo("/api/v1/employees/id/{id}");
+
+        mockMvc.perform(get("/api/v1/employees/id/" + (Long.MAX_VALUE - 1))).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/employees/id/" + (Long.MAX_VALUE - 2))).andExpect(status().isNotFound());
+
+        assertEquals(before + 2, requestsTo("/api/v1/employees/id/{id}"));
+        assertTrue(prometheus.scrape().lines().anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket{")
+                && line.contains("uri=\"/api/v1/employees/id/{id}\"")));
+    }
+
+    @Test
+    void testPoolsAndHibernateAreBound() throws Exception {
+        mockMvc.perform(get("/api/v1/employees/id/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        String scrape = prometheus.scrape();
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds_count{pool=\"sqlite-write\"}"), scrape);
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds_count{pool=\"sqlite-read\"}"), scrape);
+        assertTrue(scrape.lines().anyMatch(line -> line.startsWith("hibernate_statements_total{")), scrape);
+        assertTrue(scrape.contains("store_password_hashing_queue_depth"), scrape);
+    }
+
+    @Test
+    void testMetricsAreNotServedOnTheApiPort() throws Exception {
+        // No handler on the API port; the management port is a separate server
+        for (String path : new String[] {"/actuator/prometheus", "/metrics"}) {
+            mockMvc.perform(get(path))
+                    .andExpect(result -> assertInstanceOf(NoResourceFoundException.class, result.getResolvedException()));
+        }
+    }
+
+    private long requestsTo(String uri) {
+        return meterRegistry.get("http.server.requests").tag("uri", uri).timers().stream()
+                .mapToLong(timer -> timer.count())
+                .sum();
+    }
+}
@@ -0,0 +1,76 @@
+package com.archtech.store;
+
+import com.archtech.store.repository.*;
+import com.archtech.store.services.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrgChartIndexTest {
+
+    private EmployeeRepository repository;
+    private OrgChartIndex orgChart;
+
+    @BeforeEach
+    void setup() {
+        repository = Mockito.mock(EmployeeRepository.class);
+        // Disabled writer: the rebuild runs inline
+        orgChart = new OrgChartIndex(repository, new GroupCommitWriter(null, null, false, 1, 1, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testRebuildLoadsManagerLinks() {
+        // 1 <- 2 <- 3, and a sparse id far beyond the initial capacity
+        when(repository.findAllManagerLinks()).thenReturn(List.of(
+                new Object[] {2L, 1L},
+                new Object[] {3L, 2L},
+                new Object[] {5000L, 3L}
+        ));
+
+        orgChart.rebuild();
+
+        assertEquals(1L, orgChart.getManagerId(2L));
+        assertEquals(3L, orgChart.getManagerId(5000L));
+        assertNull(orgChart.getManagerId(1L));
+        verify(repository, times(1)).findAllManagerLinks();
+    }
+
+    @Test
+    void testWouldCreateCycle() {
+        orgChart.setManager(2L, 1L);
+        orgChart.setManager(3L, 2L);
+
+        assertTrue(orgChart.wouldCreateCycle(1L, 3L));  // 1 reporting to its grand-report
+        assertTrue(orgChart.wouldCreateCycle(2L, 2L));  // self reference
+        assertFalse(orgChart.wouldCreateCycle(3L, 1L)); // moving 3 up is fine
+        assertFalse(orgChart.wouldCreateCycle(0L, 3L)); // new employee
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testRemoveAndReassign() {
+        orgChart.setManager(2L, 1L);
+        orgChart.setManager(3L, 2L);
+
+        orgChart.remove(2L);
+        assertFalse(orgChart.wouldCreateCycle(1L, 3L));
+
+        orgChart.setManager(3L, null);
+        assertNull(orgChart.getManagerId(3L));
+    }
+
+    @Test
+    void testCorruptCycleTerminates() {
+        orgChart.setManager(1L, 2L);
+        orgChart.setManager(2L, 1L);
+
+        assertFalse(orgChart.wouldCreateCycle(3L, 1L));
+    }
+}
@@ -0,0 +1,81 @@
+package com.archtech.store;
+
+import com.archtech.store.config.IteratedPbkdf2PasswordEncoder;
+import com.archtech.store.config.PasswordEncoderCalibration;
+import com.archtech.store.config.SecurityConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderConfigTest {
+
+    private static final Duration TARGET = Duration.ofMillis(250);
+
+    @Test
+    void testBcryptStrengthStaysWithinTarget() {
+        assertEquals(12, PasswordEncoderCalibration.bcryptStrength(TARGET, millis(60)));
+        assertEquals(14, PasswordEncoderCalibration.bcryptStrength(TARGET, millis(15)));
+        // Never below the floor on slow hardware, never above the cap on fast hardware
+        assertEquals(PasswordEncoderCalibration.MIN_BCRYPT_STRENGTH,
+                PasswordEncoderCalibration.bcryptStrength(TARGET, millis(500)));
+        assertEquals(PasswordEncoderCalibration.MAX_BCRYPT_STRENGTH,
+                PasswordEncoderCalibration.bcryptStrength(TARGET, 1_000));
+    }
+
+    @Test
+    void testPbkdf2IterationsScaleWithTarget() {
+        assertEquals(500_000, PasswordEncoderCalibration.pbkdf2Iterations(TARGET, millis(50)));
+        assertEquals(PasswordEncoderCalibration.MIN_PBKDF2_ITERATIONS,
+                PasswordEncoderCalibration.pbkdf2Iterations(TARGET, millis(200)));
+    }
+
+    @Test
+    void testLegacyBcryptHashVerifiesAndNeedsUpgrade() {
+        PasswordEncoder encoder = new SecurityConfig().passwordEncoder("bcrypt", TARGET, 5, 1_000);
+        String legacy = new BCryptPasswordEncoder(5).encode("secret123");
+
+        assertTrue(encoder.matches("secret123", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+
+        String current = encoder.encode("secret123");
+        assertTrue(current.startsWith("{bcrypt}$2a$05$"));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+
+    @Test
+    void testCostIncreaseAndAlgorithmSwitchRequestUpgrade() {
+        String bcrypt4 = new SecurityConfig().passwordEncoder("bcrypt", TARGET, 4, 1_000).encode("secret123");
+        String pbkdf2Low = new SecurityConfig().passwordEncoder("pbkdf2", TARGET, 4, 1_000).encode("secret123");
+
+        PasswordEncoder bcrypt5 = new SecurityConfig().passwordEncoder("bcrypt", TARGET, 5, 2_000);
+        assertTrue(bcrypt5.matches("secret123", bcrypt4));
+        assertTrue(bcrypt5.upgradeEncoding(bcrypt4));
+        assertTrue(bcrypt5.matches("secret123", pbkdf2Low));
+        assertTrue(bcrypt5.upgradeEncoding(pbkdf2Low));
+
+        PasswordEncoder pbkdf2High = new SecurityConfig().passwordEncoder("pbkdf2", TARGET, 4, 2_000);
+        assertTrue(pbkdf2High.matches("secret123", pbkdf2Low));
+        assertTrue(pbkdf2High.upgradeEncoding(pbkdf2Low));
+        assertFalse(pbkdf2High.upgradeEncoding(pbkdf2High.encode("secret123")));
+    }
+
+    @Test
+    void testPbkdf2HashCarriesIterationCount() {
+        IteratedPbkdf2PasswordEncoder encoder = new IteratedPbkdf2PasswordEncoder(1_000);
+        String hash = encoder.encode("secret123");
+
+        assertTrue(hash.startsWith("1000$"));
+        assertTrue(new IteratedPbkdf2PasswordEncoder(5_000).matches("secret123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.matches("secret123", "not-a-hash"));
+    }
+
+    private static long millis(long value) {
+        return Duration.ofMillis(value).toNanos();
+    }
+}
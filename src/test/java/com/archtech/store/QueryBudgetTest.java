@@ -0,0 +1,116 @@
+package com.archtech.store;
+
+import com.archtech.store.exception.QueryBudgetExceededException;
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.archtech.store.services.EmployeeService;
+import com.archtech.store.services.QueryCounter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.Map;
+
+import static com.archtech.store.config.QueryBudgetFilter.QUERY_COUNT_HEADER;
+import static com.archtech.store.config.QueryBudgetFilter.QUERY_TIME_HEADER;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        // Cached entities would not reach the database
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testResponseReportsStatementsAndJdbcTime() throws Exception {
+        Employee saved = employeeService.createEmployee(employee("header"));
+        entityManagerFactory.getCache().evictAll();
+
+        // The employee alone: numSubordinates is a column, not a collection load
+        MvcResult result = mockMvc.perform(get("/api/v1/employees/id/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QUERY_COUNT_HEADER, "1"))
+                .andReturn();
+        assertTrue(Double.parseDouble(result.getResponse().getHeader(QUERY_TIME_HEADER)) > 0.0);
+
+        // The second-level cache answers it the second time
+        mockMvc.perform(get("/api/v1/employees/id/" + saved.getId()))
+                .andExpect(header().string(QUERY_COUNT_HEADER, "0"));
+    }
+
+    @Test
+    void testStatementOverBudgetFails() {
+        QueryCounter counter = new QueryCounter("test", 2, true);
+
+        QueryCounter.callWith(counter, () -> {
+            employeeRepository.findSubordinates(-1L);
+            employeeRepository.findSubordinates(-2L);
+            QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class,
+                    () -> employeeRepository.findSubordinates(-3L));
+            assertEquals(2, e.getBudget());
+            return null;
+        });
+        assertEquals(3, counter.getStatements());
+    }
+
+    @Test
+    void testQueuedWritesCountTowardsTheCaller() {
+        QueryCounter counter = new QueryCounter("test", QueryCounter.UNLIMITED, true);
+
+        // The insert runs on the group-commit writer's thread
+        QueryCounter.callWith(counter, () -> employeeService.createEmployee(employee("writer")));
+
+        assertTrue(counter.getStatements() > 0);
+        assertTrue(counter.getJdbcMillis() > 0.0);
+    }
+
+    @Test
+    void testRepeatedStatementsAreReported() {
+        QueryCounter counter = new QueryCounter("test", QueryCounter.UNLIMITED, false);
+
+        QueryCounter.callWith(counter, () -> {
+            for (long id = -1; id >= -5; id--) {
+                employeeRepository.findById(id);
+            }
+            employeeRepository.findSubordinates(-1L);
+            return null;
+        });
+
+        Map<String, Integer> repeated = counter.getRepeatedStatements(5);
+        assertEquals(1, repeated.size());
+        assertEquals(5, repeated.values().iterator().next());
+    }
+
+    private static Employee employee(String name) {
+        String unique = name + System.nanoTime();
+        return new Employee("Budget " + unique, unique + "@example.com", "IT", 50000.0, null, false);
+    }
+}
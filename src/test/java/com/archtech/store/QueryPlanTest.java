@@ -0,0 +1,135 @@
+package com.archtech.store;
+
+import com.archtech.store.repository.EmployeeRepository;
+import com.archtech.store.repository.UserAccountRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN QUERY PLAN on the SQL the repositories actually send and fails
+ * on any full table scan. Full scans of a covering index are allowed: they
+ * are how SQLite answers whole-table aggregates without touching the table.
+ *
+ * Left out on purpose, because they read every row anyway: unfiltered pages,
+ * the export stream, the availability filter load, the report counter
+ * reconciliation, and searchEmployees, whose optional
+ * "(:param IS NULL OR ...)" filters can't use an index.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    private static final Pattern TABLE = Pattern.compile("\\b(employee|employee_closure|user_account)\\s+(\\w+)");
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        // Cached queries would not reach the database
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testEmployeeQueriesUseIndexes() {
+        assertIndexed(() -> employeeRepository.findById(1L));
+        assertIndexed(() -> employeeRepository.findByEmail("plan@example.com"));
+        assertIndexed(() -> employeeRepository.existsByEmail("plan@example.com"));
+        assertIndexed(employeeRepository::findAllManagers);
+        assertIndexed(() -> employeeRepository.findSubordinates(1L));
+        assertIndexed(() -> employeeRepository.findManagerIdsByLoad(1L));
+        assertIndexed(employeeRepository::findAllManagerLinks);
+        assertIndexed(() -> employeeRepository.findReportingChain(1L));
+        assertIndexed(() -> employeeRepository.findChainIds(1L));
+        assertIndexed(() -> employeeRepository.findSubtree(1L, 3, PageRequest.of(1, 20)));
+        assertIndexed(() -> employeeRepository.findDirectReportIds(1L));
+        assertIndexed(() -> employeeRepository.findByDept("IT"));
+        assertIndexed(employeeRepository::findAllDepartments);
+        assertIndexed(employeeRepository::findDepartmentTotals);
+        assertIndexed(() -> employeeRepository.searchIdsByNameOrEmail("plan*", PageRequest.of(0, 20)));
+        assertIndexed(() -> employeeRepository.searchIds("plan*", "IT", 1.0, 2.0, true));
+        assertIndexed(() -> employeeRepository.findBySalaryRange(1.0, 2.0));
+        assertIndexed(() -> employeeRepository.findExistingEmails(Set.of("a@example.com", "b@example.com")));
+        assertIndexed(() -> employeeRepository.findManagerRefs(Set.of("a@example.com"), Set.of(1L, 2L)));
+        assertIndexed(() -> employeeRepository.findResponsesAfterId(0L, Limit.of(20)));
+        assertIndexed(() -> employeeRepository.findResponsesAfterName("M", 0L, Limit.of(20)));
+        assertIndexed(employeeRepository::findAllManagerResponses);
+        assertIndexed(() -> employeeRepository.findSubordinateResponses(1L));
+        assertIndexed(() -> employeeRepository.findResponsesByDept("IT"));
+        assertIndexed(() -> employeeRepository.findResponsesByIds(Set.of(1L, 2L)));
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(status ->
+                employeeRepository.reassignSubordinates(-1L, null, LocalDateTime.now())));
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(status -> {
+            employeeRepository.addToClosure(Set.of(-1L, -2L));
+            employeeRepository.detachSubtree(-1L);
+            employeeRepository.attachSubtrees(Set.of(-1L, -2L), -3L);
+            employeeRepository.removeFromClosure(-1L);
+        }));
+    }
+
+    @Test
+    void testUserAccountQueriesUseIndexes() {
+        assertIndexed(() -> userAccountRepository.findByUserName("plan"));
+        assertIndexed(() -> userAccountRepository.findByEmail("plan@example.com"));
+        assertIndexed(() -> userAccountRepository.existsByUserName("plan"));
+        assertIndexed(() -> userAccountRepository.existsByEmail("plan@example.com"));
+        assertIndexed(() -> userAccountRepository.findByUserNameOrEmail("plan"));
+        assertIndexed(() -> userAccountRepository.replacePasswordHash(-1L, "old", "new"));
+    }
+
+    private void assertIndexed(Runnable query) {
+        List<String> statements = RecordingStatementInspector.record(query);
+        assertFalse(statements.isEmpty(), "No SQL was recorded");
+        for (String sql : statements) {
+            List<String> plan = jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql,
+                    (row, i) -> row.getString("detail"));
+            // Names a table is known by in this statement; anything else scanned is a CTE or subquery
+            Set<String> tables = new HashSet<>();
+            Matcher table = TABLE.matcher(sql);
+            while (table.find()) {
+                tables.add(table.group(1));
+                tables.add(table.group(2));
+            }
+            List<String> scans = new ArrayList<>();
+            for (String step : plan) {
+                // "SCAN e1_0" reads the whole table; "SCAN e1_0 USING COVERING INDEX ..." reads only an index
+                if (step.startsWith("SCAN ") && tables.contains(step.substring(5))) {
+                    scans.add(step);
+                }
+            }
+            assertTrue(scans.isEmpty(), () -> "Full scan " + scans + " in plan " + plan + " for " + sql);
+        }
+    }
+}
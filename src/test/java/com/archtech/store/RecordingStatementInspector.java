@@ -0,0 +1,36 @@
+package com.archtech.store;
+
+import com.archtech.store.config.QueryCountingStatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captures the SQL Hibernate sends while {@link #record} runs on the current
+ * thread. Registered for the test profile in application-test.properties, in
+ * place of the QueryCountingStatementInspector it extends.
+ */
+public class RecordingStatementInspector extends QueryCountingStatementInspector {
+
+    private static final ThreadLocal<List<String>> recorded = new ThreadLocal<>();
+
+    public static List<String> record(Runnable work) {
+        List<String> statements = new ArrayList<>();
+        recorded.set(statements);
+        try {
+            work.run();
+        } finally {
+            recorded.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = recorded.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return super.inspect(sql);
+    }
+}
@@ -0,0 +1,111 @@
+package com.archtech.store;
+
+import com.archtech.store.model.Employee;
+import com.archtech.store.repository.EmployeeRepository;
+import com.archtech.store.services.EmployeeService;
+import com.archtech.store.services.ReportCountService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportCountServiceTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ReportCountService reportCounts;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testWritesKeepCountersCurrent() {
+        Employee top = create("top", null, true);
+        Employee left = create("left", top, true);
+        Employee right = create("right", top, true);
+        Employee a = create("a", left, false);
+        Employee b = create("b", left, false);
+        assertCounts(top, 2, 4);
+        assertCounts(left, 2, 2);
+        assertCounts(right, 0, 0);
+
+        employeeService.transferEmployee(a.getId(), right.getId());
+        assertCounts(left, 1, 1);
+        assertCounts(right, 1, 1);
+        assertCounts(top, 2, 4);
+
+        // b goes to the least-loaded manager, which other tests' managers may compete for
+        employeeService.deleteManager(left.getId());
+        Long replacementId = jdbcTemplate.queryForObject(
+                "SELECT manager_id FROM employee WHERE id = ?", Long.class, b.getId());
+        assertMatchesOrgChart(top.getId(), right.getId(), replacementId);
+        assertEquals(1, employeeRepository.findById(top.getId()).orElseThrow().getDirectReports());
+
+        employeeService.deleteEmployeeById(b.getId());
+        employeeService.deleteEmployeeById(a.getId());
+        assertCounts(top, 1, 1);
+        assertMatchesOrgChart(replacementId);
+
+        Employee moved = employeeService.getEmployee(right.getId()).orElseThrow();
+        moved.setManager(null);
+        employeeService.updateEmployee(right.getId(), moved);
+        assertCounts(top, 0, 0);
+    }
+
+    @Test
+    void testReconcileCorrectsDrift() {
+        Employee manager = create("drift", null, true);
+        Employee report = create("drift-report", manager, false);
+
+        // Behind the services' back, as a manual fix-up in the database would
+        jdbcTemplate.update("UPDATE employee SET direct_reports = 7, span = 9 WHERE id = ?", manager.getId());
+        jdbcTemplate.update("UPDATE employee SET span = 3 WHERE id = ?", report.getId());
+        entityManagerFactory.getCache().evictAll();
+
+        assertTrue(reportCounts.reconcile() >= 2);
+        assertCounts(manager, 1, 1);
+        assertCounts(report, 0, 0);
+        assertEquals(0, reportCounts.reconcile());
+    }
+
+    private Employee create(String name, Employee manager, boolean isManager) {
+        String unique = name + System.nanoTime();
+        return employeeService.createEmployee(
+                new Employee("Counted " + unique, unique + "@example.com", "IT", 50000.0, manager, isManager));
+    }
+
+    // Compares the counters with a count of the manager_id links themselves
+    private void assertMatchesOrgChart(Long... ids) {
+        for (Long id : ids) {
+            Integer directReports = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM employee WHERE manager_id = ?", Integer.class, id);
+            Integer span = jdbcTemplate.queryForObject(
+                    "WITH RECURSIVE below(id) AS (SELECT id FROM employee WHERE manager_id = ? " +
+                    "UNION ALL SELECT e.id FROM employee e JOIN below b ON e.manager_id = b.id) " +
+                    "SELECT COUNT(*) FROM below", Integer.class, id);
+            assertCounts(employeeRepository.findById(id).orElseThrow(), directReports, span);
+        }
+    }
+
+    private void assertCounts(Employee employee, int directReports, int span) {
+        Employee stored = employeeRepository.findById(employee.getId()).orElseThrow();
+        assertEquals(directReports, stored.getDirectReports(), "direct reports of " + stored.getEmployeeName());
+        assertEquals(span, stored.getSpan(), "span of " + stored.getEmployeeName());
+    }
+}
@@ -0,0 +1,52 @@
+package com.archtech.store;
+
+import com.archtech.store.model.Product;
+import com.archtech.store.repository.ProductRepository;
+import com.archtech.store.services.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testFindByIdIsServedFromCacheAndInvalidatedOnUpdate() {
+        Product saved = productRepository.save(new Product("Lamp", 40.0, "Desk lamp", false, 1));
+        double hitsBefore = regionHits("product");
+
+        // Each call runs in its own session, so only the second-level cache can avoid the select
+        productService.getProduct(saved.getId());
+        productService.getProduct(saved.getId());
+        assertEquals(hitsBefore + 2, regionHits("product"));
+
+        saved.setName("Floor lamp");
+        productRepository.save(saved);
+        assertEquals("Floor lamp", productService.getProduct(saved.getId()).orElseThrow().getName());
+
+        productRepository.deleteById(saved.getId());
+    }
+
+    // Hibernate's statistics as bound by hibernate-micrometer
+    private double regionHits(String region) {
+        return meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", region, "result", "hit")
+                .functionCounter()
+                .count();
+    }
+}
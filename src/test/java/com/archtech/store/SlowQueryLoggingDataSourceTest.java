@@ -0,0 +1,107 @@
+package com.archtech.store;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.archtech.store.config.SlowQueryLoggingDataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryLoggingDataSourceTest {
+
+    // One in-memory database shared by every connection the test opens
+    private final SingleConnectionDataSource database =
+            new SingleConnectionDataSource("jdbc:sqlite::memory:", true);
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryLoggingDataSource.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        appender.start();
+        logger.addAppender(appender);
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table item (id integer primary key, name text)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        database.destroy();
+    }
+
+    @Test
+    void testReportsDurationAndRowCount() throws Exception {
+        SlowQueryLoggingDataSource dataSource = new SlowQueryLoggingDataSource(database, Duration.ZERO, 1.0);
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement insert = connection.prepareStatement("insert into item (name) values (?)")) {
+                for (String name : new String[]{"a", "b", "c"}) {
+                    insert.setString(1, name);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement update = connection.prepareStatement("update item set name = upper(name) where name <> 'a'")) {
+                assertEquals(2, update.executeUpdate());
+            }
+            try (PreparedStatement select = connection.prepareStatement("select name from item");
+                 ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    assertNotNull(rows.getString(1));
+                }
+            }
+        }
+
+        // The schema statement ran on the unwrapped connection and is not logged
+        assertEquals(3, appender.list.size());
+        assertEquals(3L, fields(appender.list.get(0)).get("rows"));
+        assertEquals(2L, fields(appender.list.get(1)).get("rows"));
+        assertEquals(3L, fields(appender.list.get(2)).get("rows"));
+        assertTrue(appender.list.get(2).getFormattedMessage().endsWith("select name from item"));
+        assertInstanceOf(Long.class, fields(appender.list.get(2)).get("duration_ms"));
+    }
+
+    @Test
+    void testFastStatementsAreNotLogged() throws Exception {
+        SlowQueryLoggingDataSource dataSource = new SlowQueryLoggingDataSource(database, Duration.ofMinutes(1), 1.0);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into item (name) values ('fast')");
+            try (ResultSet rows = statement.executeQuery("select count(*) from item")) {
+                assertTrue(rows.next());
+            }
+        }
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void testSampleRateZeroLogsNothing() throws Exception {
+        SlowQueryLoggingDataSource dataSource = new SlowQueryLoggingDataSource(database, Duration.ZERO, 0.0);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into item (name) values ('sampled')");
+        }
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    private static Map<String, Object> fields(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream().collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+    }
+}
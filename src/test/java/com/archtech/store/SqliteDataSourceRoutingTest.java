@@ -0,0 +1,89 @@
+package com.archtech.store;
+
+import com.archtech.store.model.Product;
+import com.archtech.store.repository.ProductRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SqliteDataSourceRoutingTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testReadOnlyTransactionsUseReadPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Integer readerQueryOnly = readOnly.execute(status -> jdbcTemplate.queryForObject("PRAGMA query_only", Integer.class));
+        Integer writerQueryOnly = new TransactionTemplate(transactionManager)
+                .execute(status -> jdbcTemplate.queryForObject("PRAGMA query_only", Integer.class));
+
+        assertEquals(1, readerQueryOnly);
+        assertEquals(0, writerQueryOnly);
+        assertEquals("wal", jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class));
+    }
+
+    @Test
+    void testWriteTransactionCanReadBeforeAllocatingIds() {
+        List<Long> ids = new ArrayList<>();
+
+        // More inserts than one id block, after a read on the same connection
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productRepository.count();
+            for (int i = 0; i < 120; i++) {
+                ids.add(productRepository.save(new Product("Routed " + i, 1.0, "routing", false, 1)).getId());
+            }
+        });
+
+        assertEquals(120, ids.stream().distinct().count());
+        productRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void testWriteAfterReadInOpenSessionUsesWriter() {
+        Product product = productRepository.save(new Product("Open session", 1.0, "routing", false, 1));
+
+        // Same binding open-in-view makes for a web request
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            Product loaded = productRepository.findById(product.getId()).orElseThrow();
+            loaded.setPrice(2.0);
+            productRepository.save(loaded);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+
+        assertEquals(2.0, productRepository.findById(product.getId()).orElseThrow().getPrice());
+        productRepository.deleteById(product.getId());
+    }
+}
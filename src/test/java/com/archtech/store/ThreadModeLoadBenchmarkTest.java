@@ -0,0 +1,168 @@
+package com.archtech.store;
+
+import com.archtech.store.services.EmployeeImportService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput and tail latency of the same read mix (lookup by id, keyset page,
+ * full-text search) served from platform-thread Tomcat and from virtual threads.
+ * Boots the application once per mode on a seeded SQLite file. Skipped by
+ * default; run with
+ * mvn test -Dtest=ThreadModeLoadBenchmarkTest -Dbenchmark=true
+ *     [-Dbenchmark.concurrency=1000] [-Dbenchmark.seconds=20] [-Dbenchmark.rows=20000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModeLoadBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadModeLoadBenchmarkTest.class);
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+    private static final int WARMUP_SECONDS = 5;
+    private static final String[] NAMES = {"alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi"};
+
+    @Test
+    void compareThreadModes() throws Exception {
+        Path dbFile = Files.createTempFile("thread-mode-benchmark", ".db");
+        try {
+            // Virtual first: the scheduler is sized once, before the first virtual thread
+            Result virtual = run(dbFile, true);
+            Result platform = run(dbFile, false);
+
+            log.info("{}", String.format(
+                    "Thread modes, %,d concurrent clients, %d s, %,d employees, %d cores%n%-10s %12s %10s %10s %10s %10s %8s%n%s%n%s",
+                    CONCURRENCY, SECONDS, ROWS, Runtime.getRuntime().availableProcessors(),
+                    "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors",
+                    platform.row("platform"), virtual.row("virtual")));
+
+            assertTrue(platform.requests > 0 && virtual.requests > 0);
+        } finally {
+            Files.deleteIfExists(dbFile);
+        }
+    }
+
+    private static Result run(Path dbFile, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StoreApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:sqlite:" + dbFile,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.archtech.store.ThreadModeLoadBenchmarkTest=INFO",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run()) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            load(port, WARMUP_SECONDS);
+            return load(port, SECONDS);
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context) throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= ROWS; i++) {
+            String name = NAMES[i % NAMES.length];
+            ndjson.append("{\"name\":\"").append(name).append(' ').append(Integer.toString(i, 36))
+                  .append("\",\"email\":\"").append(name).append(i).append("@bench.example.com\"")
+                  .append(",\"dept\":\"D").append(i % 20).append("\",\"salary\":").append(40_000 + i % 50_000)
+                  .append("}\n");
+        }
+        context.getBean(EmployeeImportService.class)
+               .importNdjson(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Result load(int port, int seconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        String base = "http://localhost:" + port + "/api/v1/employees";
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        List<Future<long[]>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        URI uri = URI.create(switch (random.nextInt(3)) {
+                            case 0 -> base + "/id/" + (1 + random.nextInt(ROWS));
+                            case 1 -> base + "?after=&size=20";
+                            default -> base + "/search/text?q=" + NAMES[random.nextInt(NAMES.length)];
+                        });
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(
+                                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        List<long[]> all = new ArrayList<>();
+        for (Future<long[]> future : clients) {
+            all.add(future.get());
+        }
+        long[] merged = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(merged.length, seconds, merged, errors.get());
+    }
+
+    private record Result(long requests, int seconds, long[] sortedLatencies, long errors) {
+        String row(String mode) {
+            return String.format("%-10s %12.0f %10.1f %10.1f %10.1f %10.1f %8d", mode,
+                    (double) requests / seconds, percentile(0.50), percentile(0.99), percentile(0.999),
+                    sortedLatencies.length == 0 ? 0.0 : sortedLatencies[sortedLatencies.length - 1] / 1e6, errors);
+        }
+
+        double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
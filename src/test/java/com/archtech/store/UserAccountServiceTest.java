@@ -0,0 +1,229 @@
+package com.archtech.store;
+
+import com.archtech.store.dto.*;
+import com.archtech.store.exception.PasswordHashingOverloadedException;
+import com.archtech.store.model.*;
+import com.archtech.store.repository.*;
+import com.archtech.store.services.*;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserAccountServiceTest {
+
+    private UserAccountRepository repository;
+    private BCryptPasswordEncoder passwordEncoder;
+    private AccountNameFilter nameFilter;
+    private GroupCommitWriter writer;
+    private SimpleMeterRegistry meterRegistry;
+    private ObservationRegistry observations;
+    private UserAccountService service;
+    private UserAccount alice;
+
+    @BeforeEach
+    void setup() {
+        repository = Mockito.mock(UserAccountRepository.class);
+        passwordEncoder = Mockito.spy(new BCryptPasswordEncoder(4));
+        nameFilter = new AccountNameFilter(repository, true, 100, 0.01);
+        // Disabled: writes run inline on the caller
+        writer = new GroupCommitWriter(null, null, false, 1, 1, Duration.ofSeconds(1));
+        meterRegistry = new SimpleMeterRegistry();
+        observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        service = new UserAccountService(repository, new PasswordHashingService(passwordEncoder, 1, 10, 1, meterRegistry),
+                new CredentialCache(true, Duration.ofMinutes(5), 100), nameFilter, writer, Runnable::run, observations);
+
+        alice = new UserAccount("Alice", "alice", "alice@example.com", passwordEncoder.encode("secret123"));
+        alice.setId(1L);
+        when(repository.findByUserNameOrEmail(anyString())).thenReturn(List.of(alice));
+        when(repository.findById(1L)).thenReturn(Optional.of(alice));
+        when(repository.save(any(UserAccount.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testSigninUsesSingleLookupAndCachesVerification() {
+        assertTrue(service.signin(new SigninRequest("alice@example.com", "secret123")).join().isPresent());
+        assertTrue(service.signin(new SigninRequest("alice@example.com", "secret123")).join().isPresent());
+        assertFalse(service.signin(new SigninRequest("alice@example.com", "wrong")).join().isPresent());
+
+        verify(repository, times(3)).findByUserNameOrEmail("alice@example.com");
+        verify(repository, never()).findByUserName(anyString());
+        verify(repository, never()).findByEmail(anyString());
+        // First success and the wrong password pay for BCrypt; the repeat does not
+        verify(passwordEncoder, times(2)).matches(anyString(), anyString());
+        // Stored hash already at the current cost
+        verify(repository, never()).replacePasswordHash(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void testSigninUpgradesHashBelowCurrentCost() {
+        BCryptPasswordEncoder stronger = new BCryptPasswordEncoder(5);
+        UserAccountService upgraded = new UserAccountService(repository, new PasswordHashingService(stronger, 1, 10, 1, meterRegistry),
+                new CredentialCache(true, Duration.ofMinutes(5), 100), nameFilter, writer, Runnable::run, observations);
+        String oldHash = alice.getPassword();
+        when(repository.replacePasswordHash(eq(1L), eq(oldHash), anyString())).thenReturn(1);
+
+        assertTrue(upgraded.signin(new SigninRequest("alice", "secret123")).join().isPresent());
+
+        // The upgrade runs in the background after the signin has completed
+        verify(repository, timeout(5000)).replacePasswordHash(eq(1L), eq(oldHash),
+                argThat(hash -> hash.startsWith("$2a$05$") && stronger.matches("secret123", hash)));
+    }
+
+    @Test
+    void testFailedSigninNeverUpgradesHash() {
+        UserAccountService upgraded = new UserAccountService(repository,
+                new PasswordHashingService(new BCryptPasswordEncoder(5), 1, 10, 1, meterRegistry),
+                new CredentialCache(true, Duration.ofMinutes(5), 100), nameFilter, writer, Runnable::run, observations);
+
+        assertFalse(upgraded.signin(new SigninRequest("alice", "wrong")).join().isPresent());
+
+        verify(repository, never()).replacePasswordHash(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void testSigninPrefersUsernameMatch() {
+        UserAccount bob = new UserAccount("Bob", "alice@example.com", "bob@example.com", passwordEncoder.encode("hunter22"));
+        bob.setId(2L);
+        when(repository.findByUserNameOrEmail("alice@example.com")).thenReturn(List.of(alice, bob));
+
+        Optional<UserAccount> result = service.signin(new SigninRequest("alice@example.com", "hunter22")).join();
+
+        assertEquals(2L, result.orElseThrow().getId());
+    }
+
+    @Test
+    void testSigninAndPasswordCheckAreTimed() {
+        assertTrue(service.signin(new SigninRequest("alice", "secret123")).join().isPresent());
+        assertTrue(service.signin(new SigninRequest("alice", "secret123")).join().isPresent());
+
+        assertEquals(2, meterRegistry.get("store.service")
+                .tags("class", "UserAccountService", "method", "signin", "error", "none").timer().count());
+        // The second signin was answered by the credential cache
+        assertEquals(1, meterRegistry.get("store.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void testUpdatePasswordWritesOnlyTheHash() {
+        when(repository.updatePasswordHash(eq(1L), anyString())).thenReturn(1);
+
+        service.updatePassword(1L, "other456").join();
+
+        verify(repository).updatePasswordHash(eq(1L), argThat(hash -> passwordEncoder.matches("other456", hash)));
+        verify(repository, never()).save(any(UserAccount.class));
+    }
+
+    @Test
+    void testChangePasswordInvalidatesCachedVerification() {
+        String oldHash = alice.getPassword();
+        when(repository.replacePasswordHash(eq(1L), eq(oldHash), anyString())).thenAnswer(invocation -> {
+            alice.setPassword(invocation.getArgument(2));
+            return 1;
+        });
+        assertTrue(service.signin(new SigninRequest("alice", "secret123")).join().isPresent());
+
+        service.changePassword(1L, new ChangePasswordRequest("secret123", "other456")).join();
+
+        assertFalse(service.signin(new SigninRequest("alice", "secret123")).join().isPresent());
+        assertTrue(service.signin(new SigninRequest("alice", "other456")).join().isPresent());
+    }
+
+    @Test
+    void testChangePasswordFailsWhenThePasswordChangedSinceTheCheck() {
+        // The stored hash no longer matches the one the current password was checked against
+        when(repository.replacePasswordHash(eq(1L), anyString(), anyString())).thenReturn(0);
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> service.changePassword(1L, new ChangePasswordRequest("secret123", "other456")).join());
+
+        assertEquals("Current password is incorrect!", failure.getCause().getMessage());
+        verify(repository, never()).save(any(UserAccount.class));
+    }
+
+    @Test
+    void testAvailabilityChecksSkipDatabaseForFreeNames() {
+        when(repository.findAllUserNamesAndEmails()).thenReturn(List.<Object[]>of(new Object[] {"alice", "alice@example.com"}));
+        when(repository.existsByUserName("alice")).thenReturn(true);
+        nameFilter.load();
+
+        assertFalse(service.existsByUsername("nobody"));
+        assertFalse(service.existsByEmail("nobody@example.com"));
+        verify(repository, never()).existsByUserName(anyString());
+        verify(repository, never()).existsByEmail(anyString());
+
+        // Probable hits are confirmed against the database
+        assertTrue(service.existsByUsername("alice"));
+        verify(repository).existsByUserName("alice");
+    }
+
+    @Test
+    void testAvailabilityFilterFollowsSignupAndDelete() {
+        when(repository.findAllUserNamesAndEmails()).thenReturn(List.of());
+        nameFilter.load();
+
+        UserAccount carol = service.signup(new SignupRequest("Carol", "carol", "carol@example.com", "secret123")).join();
+        carol.setId(3L);
+        when(repository.findById(3L)).thenReturn(Optional.of(carol));
+        when(repository.existsByUserName("carol")).thenReturn(true);
+
+        assertTrue(service.existsByUsername("carol"));
+
+        service.deleteUser(3L);
+        clearInvocations(repository);
+
+        assertFalse(service.existsByUsername("carol"));
+        verify(repository, never()).existsByUserName(anyString());
+    }
+
+    @Test
+    void testHashingPoolRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BCryptPasswordEncoder slowEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHashingService hashing = new PasswordHashingService(slowEncoder, 1, 1, 2, meterRegistry);
+
+        CompletableFuture<String> running = hashing.encode("one");   // occupies the only thread
+        CompletableFuture<String> queued = hashing.encode("two");    // fills the queue
+        CompletableFuture<String> rejected = hashing.encode("three");
+
+        CompletionException failure = assertThrows(CompletionException.class, rejected::join);
+        PasswordHashingOverloadedException overload =
+                assertInstanceOf(PasswordHashingOverloadedException.class, failure.getCause());
+        assertEquals(2, overload.getRetryAfterSeconds());
+
+        release.countDown();
+        assertTrue(slowEncoder.matches("one", running.get(5, TimeUnit.SECONDS)));
+        queued.get(5, TimeUnit.SECONDS);
+
+        PasswordHashingStatistics statistics = hashing.getStatistics();
+        assertEquals(2, statistics.getCompleted());
+        assertEquals(1, statistics.getRejected());
+        hashing.destroy();
+    }
+}
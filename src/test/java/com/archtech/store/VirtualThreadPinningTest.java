@@ -0,0 +1,88 @@
+package com.archtech.store;
+
+import com.archtech.store.model.Product;
+import com.archtech.store.repository.ProductRepository;
+import com.archtech.store.services.DepartmentRegistry;
+import com.archtech.store.services.UserAccountService;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the JDBC path (Hikari, Hibernate, sqlite-jdbc) and the in-memory
+ * registries from many virtual threads at once, and fails on any pinned
+ * blocking reported by the JDK.
+ */
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+class VirtualThreadPinningTest {
+
+    private static final int TASKS = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserAccountService userAccountService;
+
+    @Autowired
+    private DepartmentRegistry departmentRegistry;
+
+    @Test
+    void testDataPathDoesNotPinCarrierThreads() throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            stream.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int i = 0; i < TASKS; i++) {
+                    int n = i;
+                    tasks.add(executor.submit(() -> {
+                        Product product = productRepository.save(new Product("Pin " + n, 10.0, "pinning", false, 1));
+                        productRepository.findById(product.getId());
+                        productRepository.findAll();
+                        userAccountService.existsByUsername("nobody-" + n);
+                        departmentRegistry.add("PIN", 1.0);
+                        departmentRegistry.rebuild();
+                        productRepository.deleteById(product.getId());
+                        return null;
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+            }
+
+            // Let the stream deliver anything still buffered
+            Thread.sleep(1_500);
+        }
+
+        assertTrue(pinned.isEmpty(), () -> pinned.size() + " pinned events, first at:\n" + describe(pinned.get(0)));
+    }
+
+    private static String describe(RecordedEvent event) {
+        return event.getStackTrace() == null ? "(no stack)" : event.getStackTrace().getFrames().stream()
+                .limit(15)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .collect(Collectors.joining("\n"));
+    }
+}